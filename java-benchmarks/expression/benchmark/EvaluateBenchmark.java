@@ -0,0 +1,104 @@
+package expression.benchmark;
+
+import expression.CommonExpression;
+import expression.bytecode.BytecodeExpression;
+import expression.calculator.*;
+import expression.compiler.ExpressionCompiler;
+import expression.exceptions.EvaluationStatus;
+import expression.exceptions.ParseException;
+import expression.generic.ModesList;
+import expression.optimizer.ExpressionOptimizer;
+import expression.parser.ExpressionParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EvaluateBenchmark {
+    private static final int EXPRESSIONS = 16;
+    private static final int POINTS = 64;
+
+    @Param({"i", "d", "bi", "u", "p", "b"})
+    public String mode;
+
+    @Param({"tree", "optimized", "compiled", "bytecode"})
+    public String representation;
+
+    @Param({"8", "64"})
+    public int size;
+
+    private Calculator<?> calc;
+    private CommonExpression<?>[] expressions;
+    private final EvaluationStatus status = new EvaluationStatus();
+
+    @Setup
+    public void setup() throws ParseException {
+        calc = ModesList.get(mode);
+        List<String> corpus = ExpressionCorpus.generate(ExpressionCorpus.Shape.BALANCED, size, EXPRESSIONS);
+        expressions = new CommonExpression<?>[EXPRESSIONS];
+        for (int i = 0; i < EXPRESSIONS; i++) {
+            expressions[i] = prepare(calc, corpus.get(i), representation);
+        }
+    }
+
+    private static <T> CommonExpression<T> prepare(
+            Calculator<T> calc, String expression, String representation
+    ) throws ParseException {
+        CommonExpression<T> expr = ExpressionParser.parse(expression, calc);
+        switch (representation) {
+            case "tree":
+                return expr;
+            case "optimized":
+                return ExpressionOptimizer.optimize(expr, calc);
+            case "compiled":
+                return ExpressionCompiler.compile(ExpressionOptimizer.optimize(expr, calc), calc);
+            default:
+                return BytecodeExpression.of(ExpressionOptimizer.optimize(expr, calc), calc);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EXPRESSIONS * POINTS)
+    public void evaluate(Blackhole blackhole) {
+        for (CommonExpression<?> expr : expressions) {
+            for (int p = 0; p < POINTS; p++) {
+                try {
+                    blackhole.consume(expr.evaluate(p - 32, p % 7, p >> 2));
+                } catch (RuntimeException e) {
+                    blackhole.consume(e);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EXPRESSIONS * POINTS)
+    public void evaluatePrimitive(Blackhole blackhole) {
+        boolean ints = calc instanceof PrimitiveIntCalculator;
+        boolean doubles = calc instanceof PrimitiveDoubleCalculator;
+        for (CommonExpression<?> expr : expressions) {
+            for (int p = 0; p < POINTS; p++) {
+                if (ints) {
+                    status.reset();
+                    blackhole.consume(expr.evaluateInt(p - 32, p % 7, p >> 2, status));
+                    blackhole.consume(status.isOk());
+                } else if (doubles) {
+                    blackhole.consume(expr.evaluateDouble(p - 32, p % 7, p >> 2));
+                } else {
+                    try {
+                        blackhole.consume(expr.evaluate(p - 32, p % 7, p >> 2));
+                    } catch (RuntimeException e) {
+                        blackhole.consume(e);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package expression.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class ExpressionCorpus {
+    public static final long SEED = 2021;
+
+    private static final String[] BINARY = {" + ", " - ", " * ", " / ", " mod "};
+    private static final String[] UNARY = {"-", "abs ", "square "};
+    private static final String[] VARIABLES = {"x", "y", "z"};
+
+    public enum Shape {
+        BALANCED, CHAIN, NESTED
+    }
+
+    public static List<String> generate(Shape shape, int size, int count) {
+        Random random = new Random(SEED ^ (31L * shape.ordinal() + size));
+        List<String> corpus = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder sb = new StringBuilder();
+            switch (shape) {
+                case BALANCED:
+                    balanced(random, sb, size);
+                    break;
+                case CHAIN:
+                    chain(random, sb, size);
+                    break;
+                default:
+                    nested(random, sb, size);
+            }
+            corpus.add(sb.toString());
+        }
+        return corpus;
+    }
+
+    private static void balanced(Random random, StringBuilder sb, int leaves) {
+        if (leaves <= 1) {
+            leaf(random, sb);
+            return;
+        }
+        if (random.nextInt(8) == 0) {
+            sb.append(UNARY[random.nextInt(UNARY.length)]);
+        }
+        sb.append('(');
+        balanced(random, sb, leaves / 2);
+        sb.append(BINARY[random.nextInt(BINARY.length)]);
+        balanced(random, sb, leaves - leaves / 2);
+        sb.append(')');
+    }
+
+    private static void chain(Random random, StringBuilder sb, int leaves) {
+        leaf(random, sb);
+        for (int i = 1; i < leaves; i++) {
+            sb.append(BINARY[random.nextInt(BINARY.length)]);
+            leaf(random, sb);
+        }
+    }
+
+    private static void nested(Random random, StringBuilder sb, int depth) {
+        for (int i = 0; i < depth; i++) {
+            if (random.nextBoolean()) {
+                sb.append(UNARY[random.nextInt(UNARY.length)]).append('(');
+            } else {
+                leaf(random, sb);
+                sb.append(BINARY[random.nextInt(BINARY.length)]).append('(');
+            }
+        }
+        leaf(random, sb);
+        for (int i = 0; i < depth; i++) {
+            sb.append(')');
+        }
+    }
+
+    private static void leaf(Random random, StringBuilder sb) {
+        if (random.nextInt(3) == 0) {
+            sb.append(random.nextInt(100));
+        } else {
+            sb.append(VARIABLES[random.nextInt(VARIABLES.length)]);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4) {
+            System.err.println("Usage: ExpressionCorpus <file> <BALANCED|CHAIN|NESTED> <size> <count>");
+            return;
+        }
+        Files.write(Path.of(args[0]), generate(
+                Shape.valueOf(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3])
+        ));
+    }
+}
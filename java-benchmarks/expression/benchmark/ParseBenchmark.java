@@ -0,0 +1,50 @@
+package expression.benchmark;
+
+import expression.CommonExpression;
+import expression.calculator.Calculator;
+import expression.exceptions.ParseException;
+import expression.generic.ModesList;
+import expression.parser.ExpressionParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+    @Param({"BALANCED", "CHAIN", "NESTED"})
+    public ExpressionCorpus.Shape shape;
+
+    @Param({"16", "1024", "65536"})
+    public int size;
+
+    @Param({"i", "bi"})
+    public String mode;
+
+    private List<String> corpus;
+    private Calculator<?> calc;
+
+    @Setup
+    public void setup() {
+        corpus = ExpressionCorpus.generate(shape, size, 8);
+        calc = ModesList.get(mode);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void parse(Blackhole blackhole) throws ParseException {
+        for (String expression : corpus) {
+            blackhole.consume(parse(calc, expression));
+        }
+    }
+
+    private static <T> CommonExpression<T> parse(Calculator<T> calc, String expression) throws ParseException {
+        return ExpressionParser.parse(expression, calc);
+    }
+}
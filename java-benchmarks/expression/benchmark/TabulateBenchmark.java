@@ -0,0 +1,67 @@
+package expression.benchmark;
+
+import expression.generic.GenericTabulator;
+import expression.vector.VectorTabulator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class TabulateBenchmark {
+    @Param({"i", "d", "bi", "u", "p", "b"})
+    public String mode;
+
+    @Param({"generic", "compiled", "parallel", "vector"})
+    public String tabulator;
+
+    @Param({"4", "32", "128"})
+    public int box;
+
+    @Param({"32"})
+    public int size;
+
+    private GenericTabulator instance;
+    private String expression;
+    private int from, to;
+
+    @Setup
+    public void setup() {
+        switch (tabulator) {
+            case "generic":
+                instance = new GenericTabulator();
+                break;
+            case "compiled":
+                instance = new GenericTabulator(true);
+                break;
+            case "parallel":
+                instance = new GenericTabulator(false, Runtime.getRuntime().availableProcessors(), GenericTabulator.DEFAULT_TILE_SIZE);
+                break;
+            default:
+                instance = new VectorTabulator();
+        }
+        expression = ExpressionCorpus.generate(ExpressionCorpus.Shape.BALANCED, size, 1).get(0);
+        from = -box / 2;
+        to = from + box - 1;
+    }
+
+    @TearDown
+    public void tearDown() {
+        instance.close();
+    }
+
+    @Benchmark
+    public Object[][][] tabulate() throws Exception {
+        return instance.tabulate(mode, expression, from, to, from, to, from, to);
+    }
+
+    @Benchmark
+    public void tabulateStreaming(Blackhole blackhole) throws Exception {
+        instance.tabulate(mode, expression, from, to, from, to, from, to, (x, y, z, value) -> blackhole.consume(value));
+    }
+}
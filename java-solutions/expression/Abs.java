@@ -1,6 +1,7 @@
 package expression;
 
 import expression.calculator.Calculator;
+import expression.exceptions.EvaluationStatus;
 
 public class Abs<T> extends UnaryOperation<T> {
     public Abs(Calculator<T> calc, CommonExpression<T> arg) {
@@ -11,4 +12,38 @@ public class Abs<T> extends UnaryOperation<T> {
     protected T calculate(T x) {
         return calc.abs(x);
     }
+
+    @Override
+    protected int calculateInt(int x) {
+        return intCalc.abs(x);
+    }
+
+    @Override
+    protected int calculateInt(int x, EvaluationStatus status) {
+        return intCalc.abs(x, status);
+    }
+
+    @Override
+    protected long calculateLong(long x, EvaluationStatus status) {
+        return longCalc.abs(x, status);
+    }
+
+    @Override
+    protected double calculateDouble(double x) {
+        return doubleCalc.abs(x);
+    }
+
+    @Override
+    protected void calculateIntBatch(int[] x, int[] r, int count, EvaluationStatus status) {
+        for (int i = 0; i < count; i++) {
+            r[i] = intCalc.abs(x[i], status);
+        }
+    }
+
+    @Override
+    protected void calculateDoubleBatch(double[] x, double[] r, int count) {
+        for (int i = 0; i < count; i++) {
+            r[i] = doubleCalc.abs(x[i]);
+        }
+    }
 }
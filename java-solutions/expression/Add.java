@@ -1,6 +1,7 @@
 package expression;
 
 import expression.calculator.Calculator;
+import expression.exceptions.EvaluationStatus;
 
 public class Add<T> extends BinaryOperation<T> {
     public Add(Calculator<T> calc, CommonExpression<T> first, CommonExpression<T> second) {
@@ -11,4 +12,38 @@ public class Add<T> extends BinaryOperation<T> {
     protected T calculate(T x, T y) {
         return calc.add(x, y);
     }
+
+    @Override
+    protected int calculateInt(int x, int y) {
+        return intCalc.add(x, y);
+    }
+
+    @Override
+    protected int calculateInt(int x, int y, EvaluationStatus status) {
+        return intCalc.add(x, y, status);
+    }
+
+    @Override
+    protected long calculateLong(long x, long y, EvaluationStatus status) {
+        return longCalc.add(x, y, status);
+    }
+
+    @Override
+    protected double calculateDouble(double x, double y) {
+        return doubleCalc.add(x, y);
+    }
+
+    @Override
+    protected void calculateIntBatch(int[] x, int[] y, int[] r, int count, EvaluationStatus status) {
+        for (int i = 0; i < count; i++) {
+            r[i] = intCalc.add(x[i], y[i], status);
+        }
+    }
+
+    @Override
+    protected void calculateDoubleBatch(double[] x, double[] y, double[] r, int count) {
+        for (int i = 0; i < count; i++) {
+            r[i] = doubleCalc.add(x[i], y[i]);
+        }
+    }
 }
@@ -0,0 +1,52 @@
+package expression;
+
+import java.util.Arrays;
+
+public abstract class BatchColumn {
+    private final int capacity;
+    private final long[] errors;
+
+    protected BatchColumn(int capacity) {
+        this.capacity = capacity;
+        this.errors = new long[words(capacity)];
+    }
+
+    private static int words(int count) {
+        return (count + 63) >>> 6;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long[] errors() {
+        return errors;
+    }
+
+    public boolean isError(int i) {
+        return (errors[i >>> 6] & (1L << i)) != 0;
+    }
+
+    public void setError(int i) {
+        errors[i >>> 6] |= 1L << i;
+    }
+
+    public void clearErrors(int count) {
+        Arrays.fill(errors, 0, words(count), 0);
+    }
+
+    public boolean hasErrors(int count) {
+        for (int w = 0; w < words(count); w++) {
+            if (errors[w] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void mergeErrors(BatchColumn other, int count) {
+        for (int w = 0; w < words(count); w++) {
+            errors[w] |= other.errors[w];
+        }
+    }
+}
@@ -1,23 +1,257 @@
 package expression;
 
-import expression.calculator.Calculator;
+import expression.calculator.*;
+import expression.exceptions.EvaluationStatus;
+
+import java.util.Objects;
 
 public abstract class BinaryOperation<T> implements CommonExpression<T> {
     protected final Calculator<T> calc;
+    protected final PrimitiveIntCalculator intCalc;
+    protected final PrimitiveLongCalculator longCalc;
+    protected final PrimitiveDoubleCalculator doubleCalc;
     protected final CommonExpression<T> first, second;
+    final int depth;
+    private final int hash;
+    private CseExpression<T> flat;
 
     protected BinaryOperation(Calculator<T> calc, CommonExpression<T> first, CommonExpression<T> second) {
         this.calc = calc;
+        this.intCalc = calc instanceof PrimitiveIntCalculator ? (PrimitiveIntCalculator) calc : null;
+        this.longCalc = calc instanceof PrimitiveLongCalculator ? (PrimitiveLongCalculator) calc : null;
+        this.doubleCalc = calc instanceof PrimitiveDoubleCalculator ? (PrimitiveDoubleCalculator) calc : null;
         this.first = first;
         this.second = second;
+        this.hash = Objects.hash(getClass().getName(), first, second);
+        this.depth = 1 + Math.max(PostOrder.depth(first), PostOrder.depth(second));
     }
 
     @Override
     public T evaluate(int x, int y, int z) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            return flat().evaluate(x, y, z);
+        }
         return calculate(first.evaluate(x, y, z), second.evaluate(x, y, z));
     }
 
+    @Override
+    public int evaluateInt(int x, int y, int z) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            return flat().evaluateInt(x, y, z);
+        }
+        return calculateInt(first.evaluateInt(x, y, z), second.evaluateInt(x, y, z));
+    }
+
+    @Override
+    public int evaluateInt(int x, int y, int z, EvaluationStatus status) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            return flat().evaluateInt(x, y, z, status);
+        }
+        return calculateInt(first.evaluateInt(x, y, z, status), second.evaluateInt(x, y, z, status), status);
+    }
+
+    @Override
+    public long evaluateLong(int x, int y, int z, EvaluationStatus status) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            return flat().evaluateLong(x, y, z, status);
+        }
+        return calculateLong(first.evaluateLong(x, y, z, status), second.evaluateLong(x, y, z, status), status);
+    }
+
+    @Override
+    public double evaluateDouble(int x, int y, int z) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            return flat().evaluateDouble(x, y, z);
+        }
+        return calculateDouble(first.evaluateDouble(x, y, z), second.evaluateDouble(x, y, z));
+    }
+
+    @Override
+    public T evaluate(int[] frame) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            return flat().evaluate(frame);
+        }
+        return calculate(first.evaluate(frame), second.evaluate(frame));
+    }
+
+    @Override
+    public int evaluateInt(int[] frame, EvaluationStatus status) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            return flat().evaluateInt(frame, status);
+        }
+        return calculateInt(first.evaluateInt(frame, status), second.evaluateInt(frame, status), status);
+    }
+
+    @Override
+    public long evaluateLong(int[] frame, EvaluationStatus status) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            return flat().evaluateLong(frame, status);
+        }
+        return calculateLong(first.evaluateLong(frame, status), second.evaluateLong(frame, status), status);
+    }
+
+    @Override
+    public double evaluateDouble(int[] frame) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            return flat().evaluateDouble(frame);
+        }
+        return calculateDouble(first.evaluateDouble(frame), second.evaluateDouble(frame));
+    }
+
+    @Override
+    public void evaluateBatch(int[] xs, int[] ys, int[] zs, int count, ObjectColumn<T> out) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            flat().evaluateBatch(xs, ys, zs, count, out);
+            return;
+        }
+        ObjectColumn<T> left = ObjectColumn.acquire(count);
+        ObjectColumn<T> right = ObjectColumn.acquire(count);
+        try {
+            first.evaluateBatch(xs, ys, zs, count, left);
+            second.evaluateBatch(xs, ys, zs, count, right);
+            out.clearErrors(count);
+            out.mergeErrors(left, count);
+            out.mergeErrors(right, count);
+            for (int i = 0; i < count; i++) {
+                if (!out.isError(i)) {
+                    try {
+                        out.set(i, calculate(left.get(i), right.get(i)));
+                    } catch (RuntimeException e) {
+                        out.setError(i);
+                    }
+                }
+            }
+        } finally {
+            right.release();
+            left.release();
+        }
+    }
+
+    @Override
+    public void evaluateIntBatch(int[] xs, int[] ys, int[] zs, int count, IntColumn out) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            flat().evaluateIntBatch(xs, ys, zs, count, out);
+            return;
+        }
+        IntColumn left = IntColumn.acquire(count);
+        IntColumn right = IntColumn.acquire(count);
+        try {
+            first.evaluateIntBatch(xs, ys, zs, count, left);
+            second.evaluateIntBatch(xs, ys, zs, count, right);
+            out.clearErrors(count);
+            out.mergeErrors(left, count);
+            out.mergeErrors(right, count);
+            int[] x = left.values(), y = right.values(), r = out.values();
+            EvaluationStatus status = new EvaluationStatus();
+            try {
+                calculateIntBatch(x, y, r, count, status);
+                if (status.isOk()) {
+                    return;
+                }
+            } catch (RuntimeException ignored) {
+            }
+            for (int i = 0; i < count; i++) {
+                if (!out.isError(i)) {
+                    status.reset();
+                    try {
+                        r[i] = calculateInt(x[i], y[i], status);
+                        if (!status.isOk()) {
+                            out.setError(i);
+                        }
+                    } catch (RuntimeException e) {
+                        out.setError(i);
+                    }
+                }
+            }
+        } finally {
+            right.release();
+            left.release();
+        }
+    }
+
+    @Override
+    public void evaluateDoubleBatch(int[] xs, int[] ys, int[] zs, int count, DoubleColumn out) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            flat().evaluateDoubleBatch(xs, ys, zs, count, out);
+            return;
+        }
+        DoubleColumn left = DoubleColumn.acquire(count);
+        DoubleColumn right = DoubleColumn.acquire(count);
+        try {
+            first.evaluateDoubleBatch(xs, ys, zs, count, left);
+            second.evaluateDoubleBatch(xs, ys, zs, count, right);
+            out.clearErrors(count);
+            out.mergeErrors(left, count);
+            out.mergeErrors(right, count);
+            calculateDoubleBatch(left.values(), right.values(), out.values(), count);
+        } finally {
+            right.release();
+            left.release();
+        }
+    }
+
+    private CseExpression<T> flat() {
+        CseExpression<T> flat = this.flat;
+        if (flat == null) {
+            flat = CseExpression.flatten(this);
+            this.flat = flat;
+        }
+        return flat;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        BinaryOperation<?> other = (BinaryOperation<?>) obj;
+        return hash == other.hash && calc.equals(other.calc) && first.equals(other.first) && second.equals(other.second);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    public CommonExpression<T> getFirst() {
+        return first;
+    }
+
+    public CommonExpression<T> getSecond() {
+        return second;
+    }
+
     protected T calculate(T x, T y) {
         throw new UnsupportedOperationException();
     }
+
+    protected int calculateInt(int x, int y) {
+        throw new UnsupportedOperationException();
+    }
+
+    protected int calculateInt(int x, int y, EvaluationStatus status) {
+        return calculateInt(x, y);
+    }
+
+    protected long calculateLong(long x, long y, EvaluationStatus status) {
+        throw new UnsupportedOperationException();
+    }
+
+    protected double calculateDouble(double x, double y) {
+        throw new UnsupportedOperationException();
+    }
+
+    protected void calculateIntBatch(int[] x, int[] y, int[] r, int count, EvaluationStatus status) {
+        for (int i = 0; i < count; i++) {
+            r[i] = calculateInt(x[i], y[i], status);
+        }
+    }
+
+    protected void calculateDoubleBatch(double[] x, double[] y, double[] r, int count) {
+        for (int i = 0; i < count; i++) {
+            r[i] = calculateDouble(x[i], y[i]);
+        }
+    }
 }
@@ -1,5 +1,37 @@
 package expression;
 
-public interface CommonExpression<T> {
+import expression.exceptions.EvaluationStatus;
+
+public interface CommonExpression<T> extends IntExpression, LongExpression, DoubleExpression {
     T evaluate(int x, int y, int z);
+
+    default T evaluate(int[] frame) {
+        throw new UnsupportedOperationException();
+    }
+
+    default void evaluateBatch(int[] xs, int[] ys, int[] zs, int count, ObjectColumn<T> out) {
+        out.clearErrors(count);
+        for (int i = 0; i < count; i++) {
+            try {
+                out.set(i, evaluate(xs[i], ys[i], zs[i]));
+            } catch (RuntimeException e) {
+                out.setError(i);
+            }
+        }
+    }
+
+    @Override
+    default int evaluateInt(int x, int y, int z) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    default long evaluateLong(int x, int y, int z, EvaluationStatus status) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    default double evaluateDouble(int x, int y, int z) {
+        throw new UnsupportedOperationException();
+    }
 }
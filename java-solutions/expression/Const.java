@@ -1,14 +1,94 @@
 package expression;
 
+import expression.exceptions.EvaluationStatus;
+
+import java.util.Arrays;
+import java.util.Objects;
+
 public class Const<T> implements CommonExpression<T> {
     private final T value;
+    private final int intValue;
+    private final long longValue;
+    private final boolean exactLong;
+    private final double doubleValue;
 
     public Const(T value) {
         this.value = value;
+        this.intValue = value instanceof Number ? ((Number) value).intValue() : 0;
+        this.longValue = value instanceof Number ? ((Number) value).longValue() : 0;
+        this.exactLong = value instanceof Long || value instanceof Integer;
+        this.doubleValue = value instanceof Number ? ((Number) value).doubleValue() : 0;
     }
 
     @Override
     public T evaluate(int x, int y, int z) {
         return value;
     }
+
+    @Override
+    public T evaluate(int[] frame) {
+        return value;
+    }
+
+    @Override
+    public int evaluateInt(int x, int y, int z) {
+        return intValue;
+    }
+
+    @Override
+    public int evaluateInt(int[] frame, EvaluationStatus status) {
+        return intValue;
+    }
+
+    @Override
+    public long evaluateLong(int x, int y, int z, EvaluationStatus status) {
+        return exactLong ? longValue : status.fail(EvaluationStatus.OVERFLOW, "Overflow: constant does not fit in long", 0, 0);
+    }
+
+    @Override
+    public long evaluateLong(int[] frame, EvaluationStatus status) {
+        return evaluateLong(0, 0, 0, status);
+    }
+
+    @Override
+    public double evaluateDouble(int[] frame) {
+        return doubleValue;
+    }
+
+    @Override
+    public double evaluateDouble(int x, int y, int z) {
+        return doubleValue;
+    }
+
+    @Override
+    public void evaluateBatch(int[] xs, int[] ys, int[] zs, int count, ObjectColumn<T> out) {
+        Arrays.fill(out.values(), 0, count, value);
+        out.clearErrors(count);
+    }
+
+    @Override
+    public void evaluateIntBatch(int[] xs, int[] ys, int[] zs, int count, IntColumn out) {
+        Arrays.fill(out.values(), 0, count, intValue);
+        out.clearErrors(count);
+    }
+
+    @Override
+    public void evaluateDoubleBatch(int[] xs, int[] ys, int[] zs, int count, DoubleColumn out) {
+        Arrays.fill(out.values(), 0, count, doubleValue);
+        out.clearErrors(count);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Const && Objects.equals(value, ((Const<?>) obj).value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(value);
+    }
+
+    public T getValue() {
+        return value;
+    }
 }
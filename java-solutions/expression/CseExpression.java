@@ -0,0 +1,242 @@
+package expression;
+
+import expression.exceptions.EvaluationStatus;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CseExpression<T> implements CommonExpression<T> {
+    public static final int MAX_RECURSIVE_DEPTH = 512;
+
+    private static final int LEAF = 0;
+    private static final int UNARY = 1;
+    private static final int BINARY = 2;
+
+    private final CommonExpression<T> root;
+    private final CommonExpression<T>[] nodes;
+    private final int[] kinds;
+    private final int[] first;
+    private final int[] second;
+    private final ThreadLocal<Object[]> values;
+    private final ThreadLocal<int[]> intValues;
+    private final ThreadLocal<long[]> longValues;
+    private final ThreadLocal<double[]> doubleValues;
+
+    @SuppressWarnings("unchecked")
+    private CseExpression(CommonExpression<T> root, List<CommonExpression<T>> order, Map<CommonExpression<T>, Integer> index) {
+        this.root = root;
+        int n = order.size();
+        this.nodes = (CommonExpression<T>[]) order.toArray(new CommonExpression<?>[0]);
+        this.kinds = new int[n];
+        this.first = new int[n];
+        this.second = new int[n];
+        for (int i = 0; i < n; i++) {
+            CommonExpression<T> node = nodes[i];
+            if (node instanceof BinaryOperation) {
+                kinds[i] = BINARY;
+                first[i] = index.get(((BinaryOperation<T>) node).getFirst());
+                second[i] = index.get(((BinaryOperation<T>) node).getSecond());
+            } else if (node instanceof UnaryOperation) {
+                kinds[i] = UNARY;
+                first[i] = index.get(((UnaryOperation<T>) node).getArg());
+            } else {
+                kinds[i] = LEAF;
+            }
+        }
+        this.values = ThreadLocal.withInitial(() -> new Object[n]);
+        this.intValues = ThreadLocal.withInitial(() -> new int[n]);
+        this.longValues = ThreadLocal.withInitial(() -> new long[n]);
+        this.doubleValues = ThreadLocal.withInitial(() -> new double[n]);
+    }
+
+    public static <T> CommonExpression<T> of(CommonExpression<T> expr) {
+        CseExpression<T> flat = flatten(expr);
+        int edges = 0;
+        for (int i = 0; i < flat.nodes.length; i++) {
+            edges += flat.kinds[i];
+        }
+        return edges != flat.nodes.length - 1 ? flat : expr;
+    }
+
+    public static <T> CseExpression<T> flatten(CommonExpression<T> expr) {
+        List<CommonExpression<T>> order = PostOrder.of(expr);
+        Map<CommonExpression<T>, Integer> index = new IdentityHashMap<>();
+        for (int i = 0; i < order.size(); i++) {
+            index.put(order.get(i), i);
+        }
+        return new CseExpression<>(expr, order, index);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T evaluate(int x, int y, int z) {
+        Object[] v = values.get();
+        for (int i = 0; i < nodes.length; i++) {
+            switch (kinds[i]) {
+                case BINARY:
+                    v[i] = ((BinaryOperation<T>) nodes[i]).calculate((T) v[first[i]], (T) v[second[i]]);
+                    break;
+                case UNARY:
+                    v[i] = ((UnaryOperation<T>) nodes[i]).calculate((T) v[first[i]]);
+                    break;
+                default:
+                    v[i] = nodes[i].evaluate(x, y, z);
+            }
+        }
+        return (T) v[nodes.length - 1];
+    }
+
+    @Override
+    public int evaluateInt(int x, int y, int z) {
+        int[] v = intValues.get();
+        for (int i = 0; i < nodes.length; i++) {
+            switch (kinds[i]) {
+                case BINARY:
+                    v[i] = ((BinaryOperation<T>) nodes[i]).calculateInt(v[first[i]], v[second[i]]);
+                    break;
+                case UNARY:
+                    v[i] = ((UnaryOperation<T>) nodes[i]).calculateInt(v[first[i]]);
+                    break;
+                default:
+                    v[i] = nodes[i].evaluateInt(x, y, z);
+            }
+        }
+        return v[nodes.length - 1];
+    }
+
+    @Override
+    public double evaluateDouble(int x, int y, int z) {
+        double[] v = doubleValues.get();
+        for (int i = 0; i < nodes.length; i++) {
+            switch (kinds[i]) {
+                case BINARY:
+                    v[i] = ((BinaryOperation<T>) nodes[i]).calculateDouble(v[first[i]], v[second[i]]);
+                    break;
+                case UNARY:
+                    v[i] = ((UnaryOperation<T>) nodes[i]).calculateDouble(v[first[i]]);
+                    break;
+                default:
+                    v[i] = nodes[i].evaluateDouble(x, y, z);
+            }
+        }
+        return v[nodes.length - 1];
+    }
+
+    @Override
+    public int evaluateInt(int x, int y, int z, EvaluationStatus status) {
+        int[] v = intValues.get();
+        for (int i = 0; i < nodes.length; i++) {
+            switch (kinds[i]) {
+                case BINARY:
+                    v[i] = ((BinaryOperation<T>) nodes[i]).calculateInt(v[first[i]], v[second[i]], status);
+                    break;
+                case UNARY:
+                    v[i] = ((UnaryOperation<T>) nodes[i]).calculateInt(v[first[i]], status);
+                    break;
+                default:
+                    v[i] = nodes[i].evaluateInt(x, y, z, status);
+            }
+        }
+        return v[nodes.length - 1];
+    }
+
+    @Override
+    public long evaluateLong(int x, int y, int z, EvaluationStatus status) {
+        long[] v = longValues.get();
+        for (int i = 0; i < nodes.length; i++) {
+            switch (kinds[i]) {
+                case BINARY:
+                    v[i] = ((BinaryOperation<T>) nodes[i]).calculateLong(v[first[i]], v[second[i]], status);
+                    break;
+                case UNARY:
+                    v[i] = ((UnaryOperation<T>) nodes[i]).calculateLong(v[first[i]], status);
+                    break;
+                default:
+                    v[i] = nodes[i].evaluateLong(x, y, z, status);
+            }
+        }
+        return v[nodes.length - 1];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T evaluate(int[] frame) {
+        Object[] v = values.get();
+        for (int i = 0; i < nodes.length; i++) {
+            switch (kinds[i]) {
+                case BINARY:
+                    v[i] = ((BinaryOperation<T>) nodes[i]).calculate((T) v[first[i]], (T) v[second[i]]);
+                    break;
+                case UNARY:
+                    v[i] = ((UnaryOperation<T>) nodes[i]).calculate((T) v[first[i]]);
+                    break;
+                default:
+                    v[i] = nodes[i].evaluate(frame);
+            }
+        }
+        return (T) v[nodes.length - 1];
+    }
+
+    @Override
+    public int evaluateInt(int[] frame, EvaluationStatus status) {
+        int[] v = intValues.get();
+        for (int i = 0; i < nodes.length; i++) {
+            switch (kinds[i]) {
+                case BINARY:
+                    v[i] = ((BinaryOperation<T>) nodes[i]).calculateInt(v[first[i]], v[second[i]], status);
+                    break;
+                case UNARY:
+                    v[i] = ((UnaryOperation<T>) nodes[i]).calculateInt(v[first[i]], status);
+                    break;
+                default:
+                    v[i] = nodes[i].evaluateInt(frame, status);
+            }
+        }
+        return v[nodes.length - 1];
+    }
+
+    @Override
+    public long evaluateLong(int[] frame, EvaluationStatus status) {
+        long[] v = longValues.get();
+        for (int i = 0; i < nodes.length; i++) {
+            switch (kinds[i]) {
+                case BINARY:
+                    v[i] = ((BinaryOperation<T>) nodes[i]).calculateLong(v[first[i]], v[second[i]], status);
+                    break;
+                case UNARY:
+                    v[i] = ((UnaryOperation<T>) nodes[i]).calculateLong(v[first[i]], status);
+                    break;
+                default:
+                    v[i] = nodes[i].evaluateLong(frame, status);
+            }
+        }
+        return v[nodes.length - 1];
+    }
+
+    @Override
+    public double evaluateDouble(int[] frame) {
+        double[] v = doubleValues.get();
+        for (int i = 0; i < nodes.length; i++) {
+            switch (kinds[i]) {
+                case BINARY:
+                    v[i] = ((BinaryOperation<T>) nodes[i]).calculateDouble(v[first[i]], v[second[i]]);
+                    break;
+                case UNARY:
+                    v[i] = ((UnaryOperation<T>) nodes[i]).calculateDouble(v[first[i]]);
+                    break;
+                default:
+                    v[i] = nodes[i].evaluateDouble(frame);
+            }
+        }
+        return v[nodes.length - 1];
+    }
+
+    public CommonExpression<T> getRoot() {
+        return root;
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+}
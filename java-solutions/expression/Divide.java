@@ -1,6 +1,7 @@
 package expression;
 
 import expression.calculator.Calculator;
+import expression.exceptions.EvaluationStatus;
 
 public class Divide<T> extends BinaryOperation<T> {
     public Divide(Calculator<T> calc, CommonExpression<T> first, CommonExpression<T> second) {
@@ -11,4 +12,38 @@ public class Divide<T> extends BinaryOperation<T> {
     protected T calculate(T x, T y) {
         return calc.divide(x, y);
     }
+
+    @Override
+    protected int calculateInt(int x, int y) {
+        return intCalc.divide(x, y);
+    }
+
+    @Override
+    protected int calculateInt(int x, int y, EvaluationStatus status) {
+        return intCalc.divide(x, y, status);
+    }
+
+    @Override
+    protected long calculateLong(long x, long y, EvaluationStatus status) {
+        return longCalc.divide(x, y, status);
+    }
+
+    @Override
+    protected double calculateDouble(double x, double y) {
+        return doubleCalc.divide(x, y);
+    }
+
+    @Override
+    protected void calculateIntBatch(int[] x, int[] y, int[] r, int count, EvaluationStatus status) {
+        for (int i = 0; i < count; i++) {
+            r[i] = intCalc.divide(x[i], y[i], status);
+        }
+    }
+
+    @Override
+    protected void calculateDoubleBatch(double[] x, double[] y, double[] r, int count) {
+        for (int i = 0; i < count; i++) {
+            r[i] = doubleCalc.divide(x[i], y[i]);
+        }
+    }
 }
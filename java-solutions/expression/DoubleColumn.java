@@ -0,0 +1,27 @@
+package expression;
+
+import java.util.ArrayDeque;
+
+public class DoubleColumn extends BatchColumn {
+    private static final ThreadLocal<ArrayDeque<DoubleColumn>> POOL = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final double[] values;
+
+    public DoubleColumn(int capacity) {
+        super(capacity);
+        this.values = new double[capacity];
+    }
+
+    public double[] values() {
+        return values;
+    }
+
+    static DoubleColumn acquire(int count) {
+        DoubleColumn column = POOL.get().poll();
+        return column != null && column.capacity() >= count ? column : new DoubleColumn(count);
+    }
+
+    void release() {
+        POOL.get().push(this);
+    }
+}
@@ -0,0 +1,21 @@
+package expression;
+
+public interface DoubleExpression {
+    double evaluateDouble(int x, int y, int z);
+
+    default double evaluateDouble(int[] frame) {
+        throw new UnsupportedOperationException();
+    }
+
+    default void evaluateDoubleBatch(int[] xs, int[] ys, int[] zs, int count, DoubleColumn out) {
+        double[] values = out.values();
+        out.clearErrors(count);
+        for (int i = 0; i < count; i++) {
+            try {
+                values[i] = evaluateDouble(xs[i], ys[i], zs[i]);
+            } catch (RuntimeException e) {
+                out.setError(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package expression;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class ExpressionInterner<T> {
+    private final Map<CommonExpression<T>, CommonExpression<T>> nodes = new HashMap<>();
+
+    public CommonExpression<T> intern(CommonExpression<T> expr) {
+        CommonExpression<T> existing = nodes.putIfAbsent(expr, expr);
+        return existing == null ? expr : existing;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+}
@@ -0,0 +1,342 @@
+package expression;
+
+import expression.calculator.*;
+import expression.exceptions.EvaluationStatus;
+import expression.parser.VariablesList;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class HoistedExpression<T> {
+    private static final int LEAF = 0;
+    private static final int UNARY = 1;
+    private static final int BINARY = 2;
+
+    private static final int CONSTANT = 0;
+    private static final int X = 1;
+    private static final int XY = 2;
+    private static final int XYZ = 3;
+    private static final int NONE = 4;
+
+    private static final int ADD = 0;
+    private static final int SUBTRACT = 1;
+    private static final int MULTIPLY = 2;
+    private static final int DIVIDE = 3;
+    private static final int MOD = 4;
+    private static final int NEGATE = 5;
+    private static final int ABS = 6;
+    private static final int SQUARE = 7;
+    private static final int OTHER = 8;
+
+    private final Calculator<T> calc;
+    private final CommonExpression<T>[] nodes;
+    private final int[] kinds;
+    private final int[] ops;
+    private final boolean raw;
+    private final int[] first;
+    private final int[] second;
+    private final int[] starts;
+    private final int root;
+    private final int rootLevel;
+    private final ThreadLocal<Frame> frames;
+
+    @SuppressWarnings("unchecked")
+    private HoistedExpression(
+            Calculator<T> calc, CommonExpression<T> expr, List<List<CommonExpression<T>>> levels, int rootLevel
+    ) {
+        this.calc = calc;
+        this.rootLevel = rootLevel;
+        this.starts = new int[XYZ + 2];
+        List<CommonExpression<T>> order = new ArrayList<>();
+        for (int level = CONSTANT; level <= XYZ; level++) {
+            starts[level] = order.size();
+            order.addAll(levels.get(level));
+        }
+        int n = order.size();
+        starts[XYZ + 1] = n;
+        Map<CommonExpression<T>, Integer> index = new IdentityHashMap<>();
+        for (int i = 0; i < n; i++) {
+            index.put(order.get(i), i);
+        }
+        this.root = index.get(expr);
+        this.nodes = (CommonExpression<T>[]) order.toArray(new CommonExpression<?>[0]);
+        this.kinds = new int[n];
+        this.ops = new int[n];
+        this.raw = calc.getClass() == UncheckedIntegerCalculator.class;
+        this.first = new int[n];
+        this.second = new int[n];
+        for (int i = 0; i < n; i++) {
+            CommonExpression<T> node = nodes[i];
+            if (node instanceof BinaryOperation) {
+                kinds[i] = BINARY;
+                first[i] = index.get(((BinaryOperation<T>) node).getFirst());
+                second[i] = index.get(((BinaryOperation<T>) node).getSecond());
+            } else if (node instanceof UnaryOperation) {
+                kinds[i] = UNARY;
+                first[i] = index.get(((UnaryOperation<T>) node).getArg());
+            } else {
+                kinds[i] = LEAF;
+            }
+            ops[i] = opOf(node);
+        }
+        this.frames = ThreadLocal.withInitial(() -> new Frame(calc, n));
+    }
+
+    private static int opOf(CommonExpression<?> node) {
+        if (node instanceof Add) {
+            return ADD;
+        } else if (node instanceof Subtract) {
+            return SUBTRACT;
+        } else if (node instanceof Multiply) {
+            return MULTIPLY;
+        } else if (node instanceof Divide) {
+            return DIVIDE;
+        } else if (node instanceof Mod) {
+            return MOD;
+        } else if (node instanceof Negate) {
+            return NEGATE;
+        } else if (node instanceof Abs) {
+            return ABS;
+        } else if (node instanceof Square) {
+            return SQUARE;
+        }
+        return OTHER;
+    }
+
+    public static <T> HoistedExpression<T> of(CommonExpression<T> expr, Calculator<T> calc) {
+        List<List<CommonExpression<T>>> levels = new ArrayList<>();
+        for (int level = CONSTANT; level <= XYZ; level++) {
+            levels.add(new ArrayList<>());
+        }
+        VariableDependencies<T> dependencies = new VariableDependencies<>();
+        collect(expr, dependencies, levels);
+        return new HoistedExpression<>(calc, expr, levels, level(dependencies.of(expr)));
+    }
+
+    private static <T> void collect(
+            CommonExpression<T> expr, VariableDependencies<T> dependencies, List<List<CommonExpression<T>>> levels
+    ) {
+        for (CommonExpression<T> node : PostOrder.of(expr)) {
+            levels.get(level(dependencies.of(node))).add(node);
+        }
+    }
+
+    private static int level(Set<String> variables) {
+        if (variables.contains("z") || !VariablesList.NAMES.containsAll(variables)) {
+            return XYZ;
+        } else if (variables.contains("y")) {
+            return XY;
+        } else if (variables.contains("x")) {
+            return X;
+        }
+        return CONSTANT;
+    }
+
+    public void fill(Object[] line, int count, int x, int y, int z) {
+        Frame frame = frames.get();
+        if (frame.valid > X && frame.x != x) {
+            frame.valid = X;
+        }
+        if (frame.valid > XY && frame.y != y) {
+            frame.valid = XY;
+        }
+        if (frame.failed >= frame.valid) {
+            frame.failed = NONE;
+        }
+        frame.x = x;
+        frame.y = y;
+        for (; frame.valid < XYZ && frame.failed == NONE; frame.valid++) {
+            if (!run(frame, starts[frame.valid], starts[frame.valid + 1], x, y, z)) {
+                frame.failed = frame.valid;
+            }
+        }
+        frame.valid = XYZ;
+        if (frame.failed != NONE) {
+            for (int k = 0; k < count; k++) {
+                line[k] = fallback(x, y, z + k);
+            }
+        } else if (rootLevel < XYZ) {
+            Object value = result(frame);
+            for (int k = 0; k < count; k++) {
+                line[k] = value;
+            }
+        } else {
+            for (int k = 0; k < count; k++) {
+                line[k] = run(frame, starts[XYZ], nodes.length, x, y, z + k) ? result(frame) : fallback(x, y, z + k);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object result(Frame frame) {
+        if (calc instanceof PrimitiveIntCalculator) {
+            return calc.valueOf(frame.ints[root]);
+        } else if (calc instanceof PrimitiveLongCalculator) {
+            return calc.valueOf(frame.longs[root]);
+        } else if (calc instanceof PrimitiveDoubleCalculator) {
+            return frame.doubles[root];
+        }
+        return calc.output((T) frame.values[root]);
+    }
+
+    private Object fallback(int x, int y, int z) {
+        if (!(calc instanceof PrimitiveLongCalculator)) {
+            return null;
+        }
+        try {
+            return calc.output(nodes[root].evaluate(x, y, z));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private boolean run(Frame frame, int from, int to, int x, int y, int z) {
+        try {
+            if (calc instanceof PrimitiveIntCalculator) {
+                frame.status.reset();
+                if (raw) {
+                    runRaw(frame.ints, frame.status, from, to, x, y, z);
+                } else {
+                    runInt(frame.ints, frame.status, from, to, x, y, z);
+                }
+                return frame.status.isOk();
+            } else if (calc instanceof PrimitiveLongCalculator) {
+                frame.status.reset();
+                runLong(frame.longs, frame.status, from, to, x, y, z);
+                return frame.status.isOk();
+            } else if (calc instanceof PrimitiveDoubleCalculator) {
+                runDouble(frame.doubles, from, to, x, y, z);
+            } else {
+                run(frame.values, from, to, x, y, z);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void run(Object[] v, int from, int to, int x, int y, int z) {
+        for (int i = from; i < to; i++) {
+            switch (kinds[i]) {
+                case BINARY:
+                    v[i] = ((BinaryOperation<T>) nodes[i]).calculate((T) v[first[i]], (T) v[second[i]]);
+                    break;
+                case UNARY:
+                    v[i] = ((UnaryOperation<T>) nodes[i]).calculate((T) v[first[i]]);
+                    break;
+                default:
+                    v[i] = nodes[i].evaluate(x, y, z);
+            }
+        }
+    }
+
+    private void runInt(int[] v, EvaluationStatus status, int from, int to, int x, int y, int z) {
+        for (int i = from; i < to; i++) {
+            switch (kinds[i]) {
+                case BINARY:
+                    v[i] = ((BinaryOperation<T>) nodes[i]).calculateInt(v[first[i]], v[second[i]], status);
+                    break;
+                case UNARY:
+                    v[i] = ((UnaryOperation<T>) nodes[i]).calculateInt(v[first[i]], status);
+                    break;
+                default:
+                    v[i] = nodes[i].evaluateInt(x, y, z, status);
+            }
+        }
+    }
+
+    private void runRaw(int[] v, EvaluationStatus status, int from, int to, int x, int y, int z) {
+        for (int i = from; i < to; i++) {
+            int a = v[first[i]];
+            switch (ops[i]) {
+                case ADD:
+                    v[i] = a + v[second[i]];
+                    break;
+                case SUBTRACT:
+                    v[i] = a - v[second[i]];
+                    break;
+                case MULTIPLY:
+                    v[i] = a * v[second[i]];
+                    break;
+                case DIVIDE:
+                    v[i] = a / v[second[i]];
+                    break;
+                case MOD:
+                    v[i] = a % v[second[i]];
+                    break;
+                case NEGATE:
+                    v[i] = -a;
+                    break;
+                case ABS:
+                    v[i] = a >= 0 ? a : -a;
+                    break;
+                case SQUARE:
+                    v[i] = a * a;
+                    break;
+                default:
+                    runInt(v, status, i, i + 1, x, y, z);
+            }
+        }
+    }
+
+    private void runLong(long[] v, EvaluationStatus status, int from, int to, int x, int y, int z) {
+        for (int i = from; i < to; i++) {
+            switch (kinds[i]) {
+                case BINARY:
+                    v[i] = ((BinaryOperation<T>) nodes[i]).calculateLong(v[first[i]], v[second[i]], status);
+                    break;
+                case UNARY:
+                    v[i] = ((UnaryOperation<T>) nodes[i]).calculateLong(v[first[i]], status);
+                    break;
+                default:
+                    v[i] = nodes[i].evaluateLong(x, y, z, status);
+            }
+        }
+    }
+
+    private void runDouble(double[] v, int from, int to, int x, int y, int z) {
+        for (int i = from; i < to; i++) {
+            switch (kinds[i]) {
+                case BINARY:
+                    v[i] = ((BinaryOperation<T>) nodes[i]).calculateDouble(v[first[i]], v[second[i]]);
+                    break;
+                case UNARY:
+                    v[i] = ((UnaryOperation<T>) nodes[i]).calculateDouble(v[first[i]]);
+                    break;
+                default:
+                    v[i] = nodes[i].evaluateDouble(x, y, z);
+            }
+        }
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    public int hoisted() {
+        return starts[XYZ];
+    }
+
+    private static class Frame {
+        private final Object[] values;
+        private final int[] ints;
+        private final long[] longs;
+        private final double[] doubles;
+        private final EvaluationStatus status = new EvaluationStatus();
+        private int valid = CONSTANT;
+        private int failed = NONE;
+        private int x, y;
+
+        private Frame(Calculator<?> calc, int n) {
+            this.values = calc instanceof PrimitiveIntCalculator || calc instanceof PrimitiveLongCalculator
+                    || calc instanceof PrimitiveDoubleCalculator ? null : new Object[n];
+            this.ints = calc instanceof PrimitiveIntCalculator ? new int[n] : null;
+            this.longs = calc instanceof PrimitiveLongCalculator ? new long[n] : null;
+            this.doubles = calc instanceof PrimitiveDoubleCalculator ? new double[n] : null;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package expression;
+
+import java.util.ArrayDeque;
+
+public class IntColumn extends BatchColumn {
+    private static final ThreadLocal<ArrayDeque<IntColumn>> POOL = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final int[] values;
+
+    public IntColumn(int capacity) {
+        super(capacity);
+        this.values = new int[capacity];
+    }
+
+    public int[] values() {
+        return values;
+    }
+
+    static IntColumn acquire(int count) {
+        IntColumn column = POOL.get().poll();
+        return column != null && column.capacity() >= count ? column : new IntColumn(count);
+    }
+
+    void release() {
+        POOL.get().push(this);
+    }
+}
@@ -0,0 +1,32 @@
+package expression;
+
+import expression.exceptions.EvaluationStatus;
+
+public interface IntExpression {
+    int evaluateInt(int x, int y, int z);
+
+    default int evaluateInt(int x, int y, int z, EvaluationStatus status) {
+        return evaluateInt(x, y, z);
+    }
+
+    default int evaluateInt(int[] frame, EvaluationStatus status) {
+        throw new UnsupportedOperationException();
+    }
+
+    default void evaluateIntBatch(int[] xs, int[] ys, int[] zs, int count, IntColumn out) {
+        int[] values = out.values();
+        EvaluationStatus status = new EvaluationStatus();
+        out.clearErrors(count);
+        for (int i = 0; i < count; i++) {
+            status.reset();
+            try {
+                values[i] = evaluateInt(xs[i], ys[i], zs[i], status);
+                if (!status.isOk()) {
+                    out.setError(i);
+                }
+            } catch (RuntimeException e) {
+                out.setError(i);
+            }
+        }
+    }
+}
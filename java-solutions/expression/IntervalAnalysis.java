@@ -0,0 +1,166 @@
+package expression;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class IntervalAnalysis {
+    private static final int CONST = 0;
+    private static final int X = 1;
+    private static final int Y = 2;
+    private static final int Z = 3;
+    private static final int ADD = 4;
+    private static final int SUBTRACT = 5;
+    private static final int MULTIPLY = 6;
+    private static final int DIVIDE = 7;
+    private static final int MOD = 8;
+    private static final int NEGATE = 9;
+    private static final int ABS = 10;
+    private static final int SQUARE = 11;
+
+    private final int[] ops;
+    private final int[] first;
+    private final int[] second;
+    private final long[] constants;
+    private final ThreadLocal<long[]> bounds;
+
+    private IntervalAnalysis(int[] ops, int[] first, int[] second, long[] constants) {
+        this.ops = ops;
+        this.first = first;
+        this.second = second;
+        this.constants = constants;
+        this.bounds = ThreadLocal.withInitial(() -> new long[2 * ops.length]);
+    }
+
+    public static <T> IntervalAnalysis of(CommonExpression<T> expr) {
+        List<CommonExpression<T>> order = PostOrder.of(expr);
+        int n = order.size();
+        Map<CommonExpression<T>, Integer> index = new IdentityHashMap<>();
+        int[] ops = new int[n];
+        int[] first = new int[n];
+        int[] second = new int[n];
+        long[] constants = new long[n];
+        for (int i = 0; i < n; i++) {
+            CommonExpression<T> node = order.get(i);
+            index.put(node, i);
+            if (node instanceof BinaryOperation) {
+                first[i] = index.get(((BinaryOperation<T>) node).getFirst());
+                second[i] = index.get(((BinaryOperation<T>) node).getSecond());
+            } else if (node instanceof UnaryOperation) {
+                first[i] = index.get(((UnaryOperation<T>) node).getArg());
+            }
+            if (node instanceof Const && ((Const<?>) node).getValue() instanceof Integer) {
+                ops[i] = CONST;
+                constants[i] = (Integer) ((Const<?>) node).getValue();
+            } else if (node instanceof Variable && 0 <= ((Variable<?>) node).getSlot() && ((Variable<?>) node).getSlot() <= 2) {
+                ops[i] = X + ((Variable<?>) node).getSlot();
+            } else if (node instanceof Add) {
+                ops[i] = ADD;
+            } else if (node instanceof Subtract) {
+                ops[i] = SUBTRACT;
+            } else if (node instanceof Multiply) {
+                ops[i] = MULTIPLY;
+            } else if (node instanceof Divide) {
+                ops[i] = DIVIDE;
+            } else if (node instanceof Mod) {
+                ops[i] = MOD;
+            } else if (node instanceof Negate) {
+                ops[i] = NEGATE;
+            } else if (node instanceof Abs) {
+                ops[i] = ABS;
+            } else if (node instanceof Square) {
+                ops[i] = SQUARE;
+            } else {
+                return null;
+            }
+        }
+        return new IntervalAnalysis(ops, first, second, constants);
+    }
+
+    public boolean isSafe(int x1, int x2, int y1, int y2, int z1, int z2) {
+        long[] b = bounds.get();
+        for (int i = 0; i < ops.length; i++) {
+            int a = 2 * first[i];
+            int c = 2 * second[i];
+            long lo, hi;
+            switch (ops[i]) {
+                case CONST:
+                    lo = hi = constants[i];
+                    break;
+                case X:
+                    lo = x1;
+                    hi = x2;
+                    break;
+                case Y:
+                    lo = y1;
+                    hi = y2;
+                    break;
+                case Z:
+                    lo = z1;
+                    hi = z2;
+                    break;
+                case ADD:
+                    lo = b[a] + b[c];
+                    hi = b[a + 1] + b[c + 1];
+                    break;
+                case SUBTRACT:
+                    lo = b[a] - b[c + 1];
+                    hi = b[a + 1] - b[c];
+                    break;
+                case MULTIPLY: {
+                    long p1 = b[a] * b[c], p2 = b[a] * b[c + 1], p3 = b[a + 1] * b[c], p4 = b[a + 1] * b[c + 1];
+                    lo = Math.min(Math.min(p1, p2), Math.min(p3, p4));
+                    hi = Math.max(Math.max(p1, p2), Math.max(p3, p4));
+                    break;
+                }
+                case DIVIDE: {
+                    if (b[c] <= 0 && 0 <= b[c + 1]) {
+                        return false;
+                    }
+                    long q1 = b[a] / b[c], q2 = b[a] / b[c + 1], q3 = b[a + 1] / b[c], q4 = b[a + 1] / b[c + 1];
+                    lo = Math.min(Math.min(q1, q2), Math.min(q3, q4));
+                    hi = Math.max(Math.max(q1, q2), Math.max(q3, q4));
+                    break;
+                }
+                case MOD: {
+                    if (b[c] <= 0 && 0 <= b[c + 1]) {
+                        return false;
+                    }
+                    long m = Math.max(Math.abs(b[c]), Math.abs(b[c + 1])) - 1;
+                    lo = b[a] >= 0 ? 0 : Math.max(b[a], -m);
+                    hi = b[a + 1] <= 0 ? 0 : Math.min(b[a + 1], m);
+                    break;
+                }
+                case NEGATE:
+                    lo = -b[a + 1];
+                    hi = -b[a];
+                    break;
+                case ABS:
+                case SQUARE:
+                    if (b[a] >= 0) {
+                        lo = b[a];
+                        hi = b[a + 1];
+                    } else if (b[a + 1] <= 0) {
+                        lo = -b[a + 1];
+                        hi = -b[a];
+                    } else {
+                        lo = 0;
+                        hi = Math.max(-b[a], b[a + 1]);
+                    }
+                    if (ops[i] == SQUARE) {
+                        lo *= lo;
+                        hi *= hi;
+                    }
+                    break;
+                default:
+                    throw new AssertionError("Unknown operation: " + ops[i]);
+            }
+            if (lo < Integer.MIN_VALUE || hi > Integer.MAX_VALUE) {
+                return false;
+            }
+            b[2 * i] = lo;
+            b[2 * i + 1] = hi;
+        }
+        return true;
+    }
+}
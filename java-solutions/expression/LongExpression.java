@@ -0,0 +1,11 @@
+package expression;
+
+import expression.exceptions.EvaluationStatus;
+
+public interface LongExpression {
+    long evaluateLong(int x, int y, int z, EvaluationStatus status);
+
+    default long evaluateLong(int[] frame, EvaluationStatus status) {
+        throw new UnsupportedOperationException();
+    }
+}
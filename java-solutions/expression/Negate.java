@@ -1,6 +1,7 @@
 package expression;
 
 import expression.calculator.Calculator;
+import expression.exceptions.EvaluationStatus;
 
 public class Negate<T> extends UnaryOperation<T> {
     public Negate(Calculator<T> calc, CommonExpression<T> arg) {
@@ -11,4 +12,38 @@ public class Negate<T> extends UnaryOperation<T> {
     protected T calculate(T x) {
         return calc.negate(x);
     }
+
+    @Override
+    protected int calculateInt(int x) {
+        return intCalc.negate(x);
+    }
+
+    @Override
+    protected int calculateInt(int x, EvaluationStatus status) {
+        return intCalc.negate(x, status);
+    }
+
+    @Override
+    protected long calculateLong(long x, EvaluationStatus status) {
+        return longCalc.negate(x, status);
+    }
+
+    @Override
+    protected double calculateDouble(double x) {
+        return doubleCalc.negate(x);
+    }
+
+    @Override
+    protected void calculateIntBatch(int[] x, int[] r, int count, EvaluationStatus status) {
+        for (int i = 0; i < count; i++) {
+            r[i] = intCalc.negate(x[i], status);
+        }
+    }
+
+    @Override
+    protected void calculateDoubleBatch(double[] x, double[] r, int count) {
+        for (int i = 0; i < count; i++) {
+            r[i] = doubleCalc.negate(x[i]);
+        }
+    }
 }
@@ -0,0 +1,37 @@
+package expression;
+
+import java.util.ArrayDeque;
+
+public class ObjectColumn<T> extends BatchColumn {
+    private static final ThreadLocal<ArrayDeque<ObjectColumn<?>>> POOL = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final Object[] values;
+
+    public ObjectColumn(int capacity) {
+        super(capacity);
+        this.values = new Object[capacity];
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int i) {
+        return (T) values[i];
+    }
+
+    public void set(int i, T value) {
+        values[i] = value;
+    }
+
+    public Object[] values() {
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> ObjectColumn<T> acquire(int count) {
+        ObjectColumn<?> column = POOL.get().poll();
+        return column != null && column.capacity() >= count ? (ObjectColumn<T>) column : new ObjectColumn<>(count);
+    }
+
+    void release() {
+        POOL.get().push(this);
+    }
+}
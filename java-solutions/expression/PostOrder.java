@@ -0,0 +1,59 @@
+package expression;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+public class PostOrder {
+    public static <T> List<CommonExpression<T>> of(CommonExpression<T> expr) {
+        return of(expr, Set.of());
+    }
+
+    public static <T> List<CommonExpression<T>> of(CommonExpression<T> expr, Set<?> known) {
+        List<CommonExpression<T>> order = new ArrayList<>();
+        Set<CommonExpression<T>> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<CommonExpression<T>> stack = new ArrayList<>();
+        List<Boolean> expanded = new ArrayList<>();
+        stack.add(expr);
+        expanded.add(false);
+        while (!stack.isEmpty()) {
+            int top = stack.size() - 1;
+            CommonExpression<T> node = stack.get(top);
+            if (expanded.get(top)) {
+                stack.remove(top);
+                expanded.remove(top);
+                if (visited.add(node)) {
+                    order.add(node);
+                }
+            } else if (visited.contains(node) || known.contains(node)) {
+                stack.remove(top);
+                expanded.remove(top);
+            } else {
+                expanded.set(top, true);
+                if (node instanceof BinaryOperation) {
+                    push(stack, expanded, ((BinaryOperation<T>) node).getSecond());
+                    push(stack, expanded, ((BinaryOperation<T>) node).getFirst());
+                } else if (node instanceof UnaryOperation) {
+                    push(stack, expanded, ((UnaryOperation<T>) node).getArg());
+                }
+            }
+        }
+        return order;
+    }
+
+    public static int depth(CommonExpression<?> expr) {
+        if (expr instanceof BinaryOperation) {
+            return ((BinaryOperation<?>) expr).depth;
+        } else if (expr instanceof UnaryOperation) {
+            return ((UnaryOperation<?>) expr).depth;
+        }
+        return 1;
+    }
+
+    private static <T> void push(List<CommonExpression<T>> stack, List<Boolean> expanded, CommonExpression<T> node) {
+        stack.add(node);
+        expanded.add(false);
+    }
+}
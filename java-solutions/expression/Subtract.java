@@ -1,6 +1,7 @@
 package expression;
 
 import expression.calculator.Calculator;
+import expression.exceptions.EvaluationStatus;
 
 public class Subtract<T> extends BinaryOperation<T> {
     public Subtract(Calculator<T> calc, CommonExpression<T> first, CommonExpression<T> second) {
@@ -11,4 +12,38 @@ public class Subtract<T> extends BinaryOperation<T> {
     protected T calculate(T x, T y) {
         return calc.subtract(x, y);
     }
+
+    @Override
+    protected int calculateInt(int x, int y) {
+        return intCalc.subtract(x, y);
+    }
+
+    @Override
+    protected int calculateInt(int x, int y, EvaluationStatus status) {
+        return intCalc.subtract(x, y, status);
+    }
+
+    @Override
+    protected long calculateLong(long x, long y, EvaluationStatus status) {
+        return longCalc.subtract(x, y, status);
+    }
+
+    @Override
+    protected double calculateDouble(double x, double y) {
+        return doubleCalc.subtract(x, y);
+    }
+
+    @Override
+    protected void calculateIntBatch(int[] x, int[] y, int[] r, int count, EvaluationStatus status) {
+        for (int i = 0; i < count; i++) {
+            r[i] = intCalc.subtract(x[i], y[i], status);
+        }
+    }
+
+    @Override
+    protected void calculateDoubleBatch(double[] x, double[] y, double[] r, int count) {
+        for (int i = 0; i < count; i++) {
+            r[i] = doubleCalc.subtract(x[i], y[i]);
+        }
+    }
 }
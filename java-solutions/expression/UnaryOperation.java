@@ -1,22 +1,240 @@
 package expression;
 
-import expression.calculator.Calculator;
+import expression.calculator.*;
+import expression.exceptions.EvaluationStatus;
+
+import java.util.Objects;
 
 public abstract class UnaryOperation<T> implements CommonExpression<T> {
     protected final Calculator<T> calc;
+    protected final PrimitiveIntCalculator intCalc;
+    protected final PrimitiveLongCalculator longCalc;
+    protected final PrimitiveDoubleCalculator doubleCalc;
     protected final CommonExpression<T> arg;
+    final int depth;
+    private final int hash;
+    private CseExpression<T> flat;
 
     protected UnaryOperation(Calculator<T> calc, CommonExpression<T> arg) {
         this.calc = calc;
+        this.intCalc = calc instanceof PrimitiveIntCalculator ? (PrimitiveIntCalculator) calc : null;
+        this.longCalc = calc instanceof PrimitiveLongCalculator ? (PrimitiveLongCalculator) calc : null;
+        this.doubleCalc = calc instanceof PrimitiveDoubleCalculator ? (PrimitiveDoubleCalculator) calc : null;
         this.arg = arg;
+        this.hash = Objects.hash(getClass().getName(), arg);
+        this.depth = 1 + PostOrder.depth(arg);
     }
 
     @Override
     public T evaluate(int x, int y, int z) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            return flat().evaluate(x, y, z);
+        }
         return calculate(arg.evaluate(x, y, z));
     }
 
+    @Override
+    public int evaluateInt(int x, int y, int z) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            return flat().evaluateInt(x, y, z);
+        }
+        return calculateInt(arg.evaluateInt(x, y, z));
+    }
+
+    @Override
+    public int evaluateInt(int x, int y, int z, EvaluationStatus status) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            return flat().evaluateInt(x, y, z, status);
+        }
+        return calculateInt(arg.evaluateInt(x, y, z, status), status);
+    }
+
+    @Override
+    public long evaluateLong(int x, int y, int z, EvaluationStatus status) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            return flat().evaluateLong(x, y, z, status);
+        }
+        return calculateLong(arg.evaluateLong(x, y, z, status), status);
+    }
+
+    @Override
+    public double evaluateDouble(int x, int y, int z) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            return flat().evaluateDouble(x, y, z);
+        }
+        return calculateDouble(arg.evaluateDouble(x, y, z));
+    }
+
+    @Override
+    public T evaluate(int[] frame) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            return flat().evaluate(frame);
+        }
+        return calculate(arg.evaluate(frame));
+    }
+
+    @Override
+    public int evaluateInt(int[] frame, EvaluationStatus status) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            return flat().evaluateInt(frame, status);
+        }
+        return calculateInt(arg.evaluateInt(frame, status), status);
+    }
+
+    @Override
+    public long evaluateLong(int[] frame, EvaluationStatus status) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            return flat().evaluateLong(frame, status);
+        }
+        return calculateLong(arg.evaluateLong(frame, status), status);
+    }
+
+    @Override
+    public double evaluateDouble(int[] frame) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            return flat().evaluateDouble(frame);
+        }
+        return calculateDouble(arg.evaluateDouble(frame));
+    }
+
+    @Override
+    public void evaluateBatch(int[] xs, int[] ys, int[] zs, int count, ObjectColumn<T> out) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            flat().evaluateBatch(xs, ys, zs, count, out);
+            return;
+        }
+        ObjectColumn<T> source = ObjectColumn.acquire(count);
+        try {
+            arg.evaluateBatch(xs, ys, zs, count, source);
+            out.clearErrors(count);
+            out.mergeErrors(source, count);
+            for (int i = 0; i < count; i++) {
+                if (!out.isError(i)) {
+                    try {
+                        out.set(i, calculate(source.get(i)));
+                    } catch (RuntimeException e) {
+                        out.setError(i);
+                    }
+                }
+            }
+        } finally {
+            source.release();
+        }
+    }
+
+    @Override
+    public void evaluateIntBatch(int[] xs, int[] ys, int[] zs, int count, IntColumn out) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            flat().evaluateIntBatch(xs, ys, zs, count, out);
+            return;
+        }
+        IntColumn source = IntColumn.acquire(count);
+        try {
+            arg.evaluateIntBatch(xs, ys, zs, count, source);
+            out.clearErrors(count);
+            out.mergeErrors(source, count);
+            int[] x = source.values(), r = out.values();
+            EvaluationStatus status = new EvaluationStatus();
+            try {
+                calculateIntBatch(x, r, count, status);
+                if (status.isOk()) {
+                    return;
+                }
+            } catch (RuntimeException ignored) {
+            }
+            for (int i = 0; i < count; i++) {
+                if (!out.isError(i)) {
+                    status.reset();
+                    try {
+                        r[i] = calculateInt(x[i], status);
+                        if (!status.isOk()) {
+                            out.setError(i);
+                        }
+                    } catch (RuntimeException e) {
+                        out.setError(i);
+                    }
+                }
+            }
+        } finally {
+            source.release();
+        }
+    }
+
+    @Override
+    public void evaluateDoubleBatch(int[] xs, int[] ys, int[] zs, int count, DoubleColumn out) {
+        if (depth > CseExpression.MAX_RECURSIVE_DEPTH) {
+            flat().evaluateDoubleBatch(xs, ys, zs, count, out);
+            return;
+        }
+        DoubleColumn source = DoubleColumn.acquire(count);
+        try {
+            arg.evaluateDoubleBatch(xs, ys, zs, count, source);
+            out.clearErrors(count);
+            out.mergeErrors(source, count);
+            calculateDoubleBatch(source.values(), out.values(), count);
+        } finally {
+            source.release();
+        }
+    }
+
+    private CseExpression<T> flat() {
+        CseExpression<T> flat = this.flat;
+        if (flat == null) {
+            flat = CseExpression.flatten(this);
+            this.flat = flat;
+        }
+        return flat;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        UnaryOperation<?> other = (UnaryOperation<?>) obj;
+        return hash == other.hash && calc.equals(other.calc) && arg.equals(other.arg);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    public CommonExpression<T> getArg() {
+        return arg;
+    }
+
     protected T calculate(T x) {
         throw new UnsupportedOperationException();
     }
+
+    protected int calculateInt(int x) {
+        throw new UnsupportedOperationException();
+    }
+
+    protected int calculateInt(int x, EvaluationStatus status) {
+        return calculateInt(x);
+    }
+
+    protected long calculateLong(long x, EvaluationStatus status) {
+        throw new UnsupportedOperationException();
+    }
+
+    protected double calculateDouble(double x) {
+        throw new UnsupportedOperationException();
+    }
+
+    protected void calculateIntBatch(int[] x, int[] r, int count, EvaluationStatus status) {
+        for (int i = 0; i < count; i++) {
+            r[i] = calculateInt(x[i], status);
+        }
+    }
+
+    protected void calculateDoubleBatch(double[] x, double[] r, int count) {
+        for (int i = 0; i < count; i++) {
+            r[i] = calculateDouble(x[i]);
+        }
+    }
 }
@@ -1,26 +1,161 @@
 package expression;
 
-import expression.calculator.Calculator;
+import expression.calculator.*;
+import expression.exceptions.EvaluationStatus;
+import expression.parser.VariablesList;
 
 public class Variable<T> implements CommonExpression<T> {
     private final Calculator<T> calc;
+    private final PrimitiveIntCalculator intCalc;
+    private final PrimitiveLongCalculator longCalc;
+    private final PrimitiveDoubleCalculator doubleCalc;
     private final String var;
+    private final int slot;
 
     public Variable(Calculator<T> calc, String var) {
+        this(calc, var, VariablesList.DEFAULT.indexOf(var));
+    }
+
+    public Variable(Calculator<T> calc, String var, int slot) {
         this.calc = calc;
+        this.intCalc = calc instanceof PrimitiveIntCalculator ? (PrimitiveIntCalculator) calc : null;
+        this.longCalc = calc instanceof PrimitiveLongCalculator ? (PrimitiveLongCalculator) calc : null;
+        this.doubleCalc = calc instanceof PrimitiveDoubleCalculator ? (PrimitiveDoubleCalculator) calc : null;
         this.var = var;
+        this.slot = slot;
     }
 
     @Override
     public T evaluate(int x, int y, int z) {
-        if (var.equals("x")) {
-            return calc.valueOf(x);
-        } else if (var.equals("y")) {
-            return calc.valueOf(y);
-        } else if (var.equals("z")) {
-            return calc.valueOf(z);
-        } else {
-            return null;
+        switch (slot) {
+            case 0:
+                return calc.valueOf(x);
+            case 1:
+                return calc.valueOf(y);
+            case 2:
+                return calc.valueOf(z);
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public T evaluate(int[] frame) {
+        return calc.valueOf(frame[slot]);
+    }
+
+    @Override
+    public int evaluateInt(int[] frame, EvaluationStatus status) {
+        return intCalc.fromInt(frame[slot]);
+    }
+
+    @Override
+    public long evaluateLong(int[] frame, EvaluationStatus status) {
+        return longCalc.fromInt(frame[slot]);
+    }
+
+    @Override
+    public double evaluateDouble(int[] frame) {
+        return doubleCalc.fromInt(frame[slot]);
+    }
+
+    @Override
+    public int evaluateInt(int x, int y, int z) {
+        return intCalc.fromInt(select(x, y, z));
+    }
+
+    @Override
+    public long evaluateLong(int x, int y, int z, EvaluationStatus status) {
+        return longCalc.fromInt(select(x, y, z));
+    }
+
+    @Override
+    public double evaluateDouble(int x, int y, int z) {
+        return doubleCalc.fromInt(select(x, y, z));
+    }
+
+    @Override
+    public void evaluateBatch(int[] xs, int[] ys, int[] zs, int count, ObjectColumn<T> out) {
+        int[] source = select(xs, ys, zs);
+        out.clearErrors(count);
+        for (int i = 0; i < count; i++) {
+            out.set(i, source == null ? null : calc.valueOf(source[i]));
+        }
+    }
+
+    @Override
+    public void evaluateIntBatch(int[] xs, int[] ys, int[] zs, int count, IntColumn out) {
+        int[] source = select(xs, ys, zs);
+        int[] values = out.values();
+        out.clearErrors(count);
+        for (int i = 0; i < count; i++) {
+            if (source == null) {
+                out.setError(i);
+            } else {
+                values[i] = intCalc.fromInt(source[i]);
+            }
+        }
+    }
+
+    @Override
+    public void evaluateDoubleBatch(int[] xs, int[] ys, int[] zs, int count, DoubleColumn out) {
+        int[] source = select(xs, ys, zs);
+        double[] values = out.values();
+        out.clearErrors(count);
+        for (int i = 0; i < count; i++) {
+            if (source == null) {
+                out.setError(i);
+            } else {
+                values[i] = doubleCalc.fromInt(source[i]);
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Variable)) {
+            return false;
+        }
+        Variable<?> other = (Variable<?>) obj;
+        return slot == other.slot && var.equals(other.var) && calc.equals(other.calc);
+    }
+
+    @Override
+    public int hashCode() {
+        return var.hashCode();
+    }
+
+    public String getName() {
+        return var;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    private int select(int x, int y, int z) {
+        switch (slot) {
+            case 0:
+                return x;
+            case 1:
+                return y;
+            case 2:
+                return z;
+            default:
+                throw new UnsupportedOperationException("Unknown variable: " + var);
+        }
+    }
+
+    private int[] select(int[] xs, int[] ys, int[] zs) {
+        switch (slot) {
+            case 0:
+                return xs;
+            case 1:
+                return ys;
+            case 2:
+                return zs;
+            default:
+                return null;
         }
     }
 }
@@ -0,0 +1,45 @@
+package expression;
+
+import expression.parser.VariablesList;
+
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+public class VariableDependencies<T> {
+    private final Map<CommonExpression<T>, Set<String>> variables = new IdentityHashMap<>();
+
+    public Set<String> of(CommonExpression<T> expr) {
+        Set<String> result = variables.get(expr);
+        if (result == null) {
+            for (CommonExpression<T> node : PostOrder.of(expr, variables.keySet())) {
+                variables.put(node, collect(node));
+            }
+            result = variables.get(expr);
+        }
+        return result;
+    }
+
+    private Set<String> collect(CommonExpression<T> expr) {
+        if (expr instanceof BinaryOperation) {
+            Set<String> first = of(((BinaryOperation<T>) expr).getFirst());
+            Set<String> second = of(((BinaryOperation<T>) expr).getSecond());
+            if (first.containsAll(second)) {
+                return first;
+            } else if (second.containsAll(first)) {
+                return second;
+            }
+            Set<String> union = new HashSet<>(first);
+            union.addAll(second);
+            return Set.copyOf(union);
+        } else if (expr instanceof UnaryOperation) {
+            return of(((UnaryOperation<T>) expr).getArg());
+        } else if (expr instanceof Variable) {
+            return Set.of(((Variable<T>) expr).getName());
+        } else if (expr instanceof Const) {
+            return Set.of();
+        }
+        return VariablesList.NAMES;
+    }
+}
@@ -0,0 +1,208 @@
+package expression.bytecode;
+
+import expression.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class Bytecode {
+    static final int CONST = 0;
+    static final int X = 1;
+    static final int Y = 2;
+    static final int Z = 3;
+    static final int VARIABLE = 4;
+    static final int ADD = 5;
+    static final int SUBTRACT = 6;
+    static final int MULTIPLY = 7;
+    static final int DIVIDE = 8;
+    static final int MOD = 9;
+    static final int NEGATE = 10;
+    static final int ABS = 11;
+    static final int SQUARE = 12;
+    static final int STORE = 13;
+    static final int LOAD = 14;
+
+    final int[] code;
+    final Object[] constants;
+    final int maxStack;
+    final int locals;
+
+    Bytecode(int[] code, Object[] constants, int maxStack, int locals) {
+        this.code = code;
+        this.constants = constants;
+        this.maxStack = maxStack;
+        this.locals = locals;
+    }
+
+    public static Bytecode of(CommonExpression<?> expr) {
+        return new Encoder().encode(expr);
+    }
+
+    public int length() {
+        return code.length;
+    }
+
+    public int maxStack() {
+        return maxStack;
+    }
+
+    public int locals() {
+        return locals;
+    }
+
+    public String fingerprint(String mode) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+        digest.update(mode.getBytes(StandardCharsets.UTF_8));
+        for (int op : code) {
+            digest.update(new byte[]{(byte) (op >>> 24), (byte) (op >>> 16), (byte) (op >>> 8), (byte) op});
+        }
+        for (Object constant : constants) {
+            digest.update((byte) 0);
+            digest.update(constant.getClass().getName().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(constant.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private static class Encoder {
+        private final Map<CommonExpression<?>, Integer> uses = new IdentityHashMap<>();
+        private final Map<CommonExpression<?>, Integer> slots = new IdentityHashMap<>();
+        private final Map<Object, Integer> pool = new IdentityHashMap<>();
+        private final List<Object> constants = new ArrayList<>();
+        private int[] code = new int[16];
+        private int size = 0;
+        private int depth = 0;
+        private int maxStack = 0;
+
+        private Bytecode encode(CommonExpression<?> expr) {
+            for (CommonExpression<?> node : PostOrder.of(expr)) {
+                if (node instanceof BinaryOperation) {
+                    use(((BinaryOperation<?>) node).getFirst());
+                    use(((BinaryOperation<?>) node).getSecond());
+                } else if (node instanceof UnaryOperation) {
+                    use(((UnaryOperation<?>) node).getArg());
+                } else if (!(node instanceof Const) && !(node instanceof Variable && ((Variable<?>) node).getSlot() >= 0)) {
+                    throw new IllegalArgumentException("Cannot encode expression node: " + node.getClass().getSimpleName());
+                }
+            }
+            List<CommonExpression<?>> stack = new ArrayList<>();
+            List<Boolean> expanded = new ArrayList<>();
+            stack.add(expr);
+            expanded.add(false);
+            while (!stack.isEmpty()) {
+                int top = stack.size() - 1;
+                CommonExpression<?> node = stack.remove(top);
+                Integer slot = slots.get(node);
+                if (expanded.remove(top)) {
+                    emitOperation(node);
+                    if (uses.getOrDefault(node, 0) > 1) {
+                        slots.put(node, slots.size());
+                        emit(STORE, slots.size() - 1);
+                    }
+                } else if (slot != null) {
+                    emit(LOAD, slot);
+                    push();
+                } else if (node instanceof BinaryOperation) {
+                    stack.add(node);
+                    expanded.add(true);
+                    stack.add(((BinaryOperation<?>) node).getSecond());
+                    expanded.add(false);
+                    stack.add(((BinaryOperation<?>) node).getFirst());
+                    expanded.add(false);
+                } else if (node instanceof UnaryOperation) {
+                    stack.add(node);
+                    expanded.add(true);
+                    stack.add(((UnaryOperation<?>) node).getArg());
+                    expanded.add(false);
+                } else {
+                    emitLeaf(node);
+                    push();
+                }
+            }
+            return new Bytecode(Arrays.copyOf(code, size), constants.toArray(), maxStack, slots.size());
+        }
+
+        private void use(CommonExpression<?> node) {
+            if (node instanceof BinaryOperation || node instanceof UnaryOperation) {
+                uses.merge(node, 1, Integer::sum);
+            }
+        }
+
+        private void emitLeaf(CommonExpression<?> node) {
+            if (node instanceof Const) {
+                Object value = ((Const<?>) node).getValue();
+                Integer index = pool.get(value);
+                if (index == null) {
+                    index = constants.size();
+                    pool.put(value, index);
+                    constants.add(value);
+                }
+                emit(CONST, index);
+            } else {
+                int slot = ((Variable<?>) node).getSlot();
+                if (slot <= 2) {
+                    emit(X + slot);
+                } else {
+                    emit(VARIABLE, slot);
+                }
+            }
+        }
+
+        private void emitOperation(CommonExpression<?> node) {
+            if (node instanceof Add) {
+                emit(ADD);
+            } else if (node instanceof Subtract) {
+                emit(SUBTRACT);
+            } else if (node instanceof Multiply) {
+                emit(MULTIPLY);
+            } else if (node instanceof Divide) {
+                emit(DIVIDE);
+            } else if (node instanceof Mod) {
+                emit(MOD);
+            } else if (node instanceof Negate) {
+                emit(NEGATE);
+            } else if (node instanceof Abs) {
+                emit(ABS);
+            } else if (node instanceof Square) {
+                emit(SQUARE);
+            } else {
+                throw new IllegalArgumentException("Cannot encode expression node: " + node.getClass().getSimpleName());
+            }
+            if (node instanceof BinaryOperation) {
+                depth--;
+            }
+        }
+
+        private void push() {
+            maxStack = Math.max(maxStack, ++depth);
+        }
+
+        private void emit(int op) {
+            if (size == code.length) {
+                code = Arrays.copyOf(code, 2 * size);
+            }
+            code[size++] = op;
+        }
+
+        private void emit(int op, int operand) {
+            emit(op);
+            emit(operand);
+        }
+    }
+}
@@ -0,0 +1,460 @@
+package expression.bytecode;
+
+import expression.CommonExpression;
+import expression.calculator.*;
+import expression.exceptions.EvaluationStatus;
+
+public class BytecodeExpression<T> implements CommonExpression<T> {
+    private static final int GENERIC = 0;
+    private static final int CHECKED_INT = 1;
+    private static final int UNCHECKED_INT = 2;
+    private static final int CALCULATOR_INT = 3;
+    private static final int DOUBLE = 4;
+
+    private final Calculator<T> calc;
+    private final PrimitiveIntCalculator intCalc;
+    private final PrimitiveDoubleCalculator doubleCalc;
+    private final int mode;
+    private final int[] code;
+    private final Object[] constants;
+    private final int[] intConstants;
+    private final double[] doubleConstants;
+    private final int locals;
+    private final Bytecode bytecode;
+    private final ThreadLocal<Frame> frames;
+
+    private BytecodeExpression(Bytecode bytecode, Calculator<T> calc) {
+        this.bytecode = bytecode;
+        this.calc = calc;
+        this.intCalc = calc instanceof PrimitiveIntCalculator ? (PrimitiveIntCalculator) calc : null;
+        this.doubleCalc = calc instanceof PrimitiveDoubleCalculator ? (PrimitiveDoubleCalculator) calc : null;
+        this.mode = modeOf(calc);
+        this.code = bytecode.code;
+        this.constants = bytecode.constants;
+        this.intConstants = new int[constants.length];
+        this.doubleConstants = new double[constants.length];
+        for (int i = 0; i < constants.length; i++) {
+            if (constants[i] instanceof Number) {
+                intConstants[i] = ((Number) constants[i]).intValue();
+                doubleConstants[i] = ((Number) constants[i]).doubleValue();
+            }
+        }
+        this.locals = bytecode.maxStack;
+        int size = bytecode.maxStack + bytecode.locals;
+        this.frames = ThreadLocal.withInitial(() -> new Frame(mode, size));
+    }
+
+    public static <T> BytecodeExpression<T> of(CommonExpression<T> expr, Calculator<T> calc) {
+        return of(Bytecode.of(expr), calc);
+    }
+
+    public static <T> BytecodeExpression<T> of(Bytecode bytecode, Calculator<T> calc) {
+        return new BytecodeExpression<>(bytecode, calc);
+    }
+
+    private static int modeOf(Calculator<?> calc) {
+        if (calc.getClass() == IntegerCalculator.class) {
+            return CHECKED_INT;
+        } else if (calc.getClass() == UncheckedIntegerCalculator.class) {
+            return UNCHECKED_INT;
+        } else if (calc instanceof PrimitiveIntCalculator) {
+            return CALCULATOR_INT;
+        } else if (calc instanceof PrimitiveDoubleCalculator) {
+            return DOUBLE;
+        }
+        return GENERIC;
+    }
+
+    public Bytecode getBytecode() {
+        return bytecode;
+    }
+
+    @Override
+    public T evaluate(int x, int y, int z) {
+        return run(frames.get().values(), null, x, y, z);
+    }
+
+    @Override
+    public T evaluate(int[] frame) {
+        return run(frames.get().values(), frame, get(frame, 0), get(frame, 1), get(frame, 2));
+    }
+
+    @Override
+    public int evaluateInt(int x, int y, int z) {
+        Frame frame = frames.get();
+        frame.status.reset();
+        int result = runInt(frame.ints, frame.status, null, x, y, z);
+        if (!frame.status.isOk()) {
+            throw frame.status.toException();
+        }
+        return result;
+    }
+
+    @Override
+    public int evaluateInt(int x, int y, int z, EvaluationStatus status) {
+        return runInt(frames.get().ints, status, null, x, y, z);
+    }
+
+    @Override
+    public int evaluateInt(int[] frame, EvaluationStatus status) {
+        return runInt(frames.get().ints, status, frame, get(frame, 0), get(frame, 1), get(frame, 2));
+    }
+
+    @Override
+    public double evaluateDouble(int x, int y, int z) {
+        return runDouble(frames.get().doubles, null, x, y, z);
+    }
+
+    @Override
+    public double evaluateDouble(int[] frame) {
+        return runDouble(frames.get().doubles, frame, get(frame, 0), get(frame, 1), get(frame, 2));
+    }
+
+    private static int get(int[] frame, int slot) {
+        return slot < frame.length ? frame[slot] : 0;
+    }
+
+    private int runInt(int[] s, EvaluationStatus status, int[] frame, int x, int y, int z) {
+        switch (mode) {
+            case CHECKED_INT:
+                return runChecked(s, status, frame, x, y, z);
+            case UNCHECKED_INT:
+                return runUnchecked(s, status, frame, x, y, z);
+            case CALCULATOR_INT:
+                return runCalculator(s, status, frame, x, y, z);
+            default:
+                throw new UnsupportedOperationException("Not an int expression: " + calc.getClass().getSimpleName());
+        }
+    }
+
+    private int runChecked(int[] s, EvaluationStatus status, int[] frame, int x, int y, int z) {
+        int sp = 0;
+        int pc = 0;
+        while (pc < code.length) {
+            switch (code[pc++]) {
+                case Bytecode.CONST:
+                    s[sp++] = intConstants[code[pc++]];
+                    break;
+                case Bytecode.X:
+                    s[sp++] = x;
+                    break;
+                case Bytecode.Y:
+                    s[sp++] = y;
+                    break;
+                case Bytecode.Z:
+                    s[sp++] = z;
+                    break;
+                case Bytecode.VARIABLE:
+                    s[sp++] = variable(frame, code[pc++]);
+                    break;
+                case Bytecode.ADD:
+                    sp--;
+                    s[sp - 1] = IntegerCalculator.checkedAdd(s[sp - 1], s[sp], status);
+                    break;
+                case Bytecode.SUBTRACT:
+                    sp--;
+                    s[sp - 1] = IntegerCalculator.checkedSubtract(s[sp - 1], s[sp], status);
+                    break;
+                case Bytecode.MULTIPLY:
+                    sp--;
+                    s[sp - 1] = IntegerCalculator.checkedMultiply(s[sp - 1], s[sp], status);
+                    break;
+                case Bytecode.DIVIDE:
+                    sp--;
+                    s[sp - 1] = IntegerCalculator.checkedDivide(s[sp - 1], s[sp], status);
+                    break;
+                case Bytecode.MOD:
+                    sp--;
+                    s[sp - 1] = s[sp] == 0 ? divisionByZero(status, s[sp - 1]) : s[sp - 1] % s[sp];
+                    break;
+                case Bytecode.NEGATE:
+                    s[sp - 1] = IntegerCalculator.checkedNegate(s[sp - 1], status);
+                    break;
+                case Bytecode.ABS:
+                    s[sp - 1] = IntegerCalculator.checkedAbs(s[sp - 1], status);
+                    break;
+                case Bytecode.SQUARE:
+                    s[sp - 1] = IntegerCalculator.checkedSquare(s[sp - 1], status);
+                    break;
+                case Bytecode.STORE:
+                    s[locals + code[pc++]] = s[sp - 1];
+                    break;
+                default:
+                    s[sp++] = s[locals + code[pc++]];
+            }
+        }
+        return s[0];
+    }
+
+    private int runUnchecked(int[] s, EvaluationStatus status, int[] frame, int x, int y, int z) {
+        int sp = 0;
+        int pc = 0;
+        while (pc < code.length) {
+            switch (code[pc++]) {
+                case Bytecode.CONST:
+                    s[sp++] = intConstants[code[pc++]];
+                    break;
+                case Bytecode.X:
+                    s[sp++] = x;
+                    break;
+                case Bytecode.Y:
+                    s[sp++] = y;
+                    break;
+                case Bytecode.Z:
+                    s[sp++] = z;
+                    break;
+                case Bytecode.VARIABLE:
+                    s[sp++] = variable(frame, code[pc++]);
+                    break;
+                case Bytecode.ADD:
+                    sp--;
+                    s[sp - 1] += s[sp];
+                    break;
+                case Bytecode.SUBTRACT:
+                    sp--;
+                    s[sp - 1] -= s[sp];
+                    break;
+                case Bytecode.MULTIPLY:
+                    sp--;
+                    s[sp - 1] *= s[sp];
+                    break;
+                case Bytecode.DIVIDE:
+                    sp--;
+                    s[sp - 1] = s[sp] == 0 ? divisionByZero(status, s[sp - 1]) : s[sp - 1] / s[sp];
+                    break;
+                case Bytecode.MOD:
+                    sp--;
+                    s[sp - 1] = s[sp] == 0 ? divisionByZero(status, s[sp - 1]) : s[sp - 1] % s[sp];
+                    break;
+                case Bytecode.NEGATE:
+                    s[sp - 1] = -s[sp - 1];
+                    break;
+                case Bytecode.ABS:
+                    s[sp - 1] = s[sp - 1] >= 0 ? s[sp - 1] : -s[sp - 1];
+                    break;
+                case Bytecode.SQUARE:
+                    s[sp - 1] *= s[sp - 1];
+                    break;
+                case Bytecode.STORE:
+                    s[locals + code[pc++]] = s[sp - 1];
+                    break;
+                default:
+                    s[sp++] = s[locals + code[pc++]];
+            }
+        }
+        return s[0];
+    }
+
+    private int runCalculator(int[] s, EvaluationStatus status, int[] frame, int x, int y, int z) {
+        PrimitiveIntCalculator c = intCalc;
+        int sp = 0;
+        int pc = 0;
+        while (pc < code.length) {
+            switch (code[pc++]) {
+                case Bytecode.CONST:
+                    s[sp++] = intConstants[code[pc++]];
+                    break;
+                case Bytecode.X:
+                    s[sp++] = c.fromInt(x);
+                    break;
+                case Bytecode.Y:
+                    s[sp++] = c.fromInt(y);
+                    break;
+                case Bytecode.Z:
+                    s[sp++] = c.fromInt(z);
+                    break;
+                case Bytecode.VARIABLE:
+                    s[sp++] = c.fromInt(variable(frame, code[pc++]));
+                    break;
+                case Bytecode.ADD:
+                    sp--;
+                    s[sp - 1] = c.add(s[sp - 1], s[sp], status);
+                    break;
+                case Bytecode.SUBTRACT:
+                    sp--;
+                    s[sp - 1] = c.subtract(s[sp - 1], s[sp], status);
+                    break;
+                case Bytecode.MULTIPLY:
+                    sp--;
+                    s[sp - 1] = c.multiply(s[sp - 1], s[sp], status);
+                    break;
+                case Bytecode.DIVIDE:
+                    sp--;
+                    s[sp - 1] = c.divide(s[sp - 1], s[sp], status);
+                    break;
+                case Bytecode.MOD:
+                    sp--;
+                    s[sp - 1] = c.mod(s[sp - 1], s[sp], status);
+                    break;
+                case Bytecode.NEGATE:
+                    s[sp - 1] = c.negate(s[sp - 1], status);
+                    break;
+                case Bytecode.ABS:
+                    s[sp - 1] = c.abs(s[sp - 1], status);
+                    break;
+                case Bytecode.SQUARE:
+                    s[sp - 1] = c.square(s[sp - 1], status);
+                    break;
+                case Bytecode.STORE:
+                    s[locals + code[pc++]] = s[sp - 1];
+                    break;
+                default:
+                    s[sp++] = s[locals + code[pc++]];
+            }
+        }
+        return s[0];
+    }
+
+    private double runDouble(double[] s, int[] frame, int x, int y, int z) {
+        PrimitiveDoubleCalculator c = doubleCalc;
+        int sp = 0;
+        int pc = 0;
+        while (pc < code.length) {
+            switch (code[pc++]) {
+                case Bytecode.CONST:
+                    s[sp++] = doubleConstants[code[pc++]];
+                    break;
+                case Bytecode.X:
+                    s[sp++] = c.fromInt(x);
+                    break;
+                case Bytecode.Y:
+                    s[sp++] = c.fromInt(y);
+                    break;
+                case Bytecode.Z:
+                    s[sp++] = c.fromInt(z);
+                    break;
+                case Bytecode.VARIABLE:
+                    s[sp++] = c.fromInt(variable(frame, code[pc++]));
+                    break;
+                case Bytecode.ADD:
+                    sp--;
+                    s[sp - 1] = c.add(s[sp - 1], s[sp]);
+                    break;
+                case Bytecode.SUBTRACT:
+                    sp--;
+                    s[sp - 1] = c.subtract(s[sp - 1], s[sp]);
+                    break;
+                case Bytecode.MULTIPLY:
+                    sp--;
+                    s[sp - 1] = c.multiply(s[sp - 1], s[sp]);
+                    break;
+                case Bytecode.DIVIDE:
+                    sp--;
+                    s[sp - 1] = c.divide(s[sp - 1], s[sp]);
+                    break;
+                case Bytecode.MOD:
+                    sp--;
+                    s[sp - 1] = c.mod(s[sp - 1], s[sp]);
+                    break;
+                case Bytecode.NEGATE:
+                    s[sp - 1] = c.negate(s[sp - 1]);
+                    break;
+                case Bytecode.ABS:
+                    s[sp - 1] = c.abs(s[sp - 1]);
+                    break;
+                case Bytecode.SQUARE:
+                    s[sp - 1] = c.square(s[sp - 1]);
+                    break;
+                case Bytecode.STORE:
+                    s[locals + code[pc++]] = s[sp - 1];
+                    break;
+                default:
+                    s[sp++] = s[locals + code[pc++]];
+            }
+        }
+        return s[0];
+    }
+
+    @SuppressWarnings("unchecked")
+    private T run(Object[] s, int[] frame, int x, int y, int z) {
+        int sp = 0;
+        int pc = 0;
+        while (pc < code.length) {
+            switch (code[pc++]) {
+                case Bytecode.CONST:
+                    s[sp++] = constants[code[pc++]];
+                    break;
+                case Bytecode.X:
+                    s[sp++] = calc.valueOf(x);
+                    break;
+                case Bytecode.Y:
+                    s[sp++] = calc.valueOf(y);
+                    break;
+                case Bytecode.Z:
+                    s[sp++] = calc.valueOf(z);
+                    break;
+                case Bytecode.VARIABLE:
+                    s[sp++] = calc.valueOf(variable(frame, code[pc++]));
+                    break;
+                case Bytecode.ADD:
+                    sp--;
+                    s[sp - 1] = calc.add((T) s[sp - 1], (T) s[sp]);
+                    break;
+                case Bytecode.SUBTRACT:
+                    sp--;
+                    s[sp - 1] = calc.subtract((T) s[sp - 1], (T) s[sp]);
+                    break;
+                case Bytecode.MULTIPLY:
+                    sp--;
+                    s[sp - 1] = calc.multiply((T) s[sp - 1], (T) s[sp]);
+                    break;
+                case Bytecode.DIVIDE:
+                    sp--;
+                    s[sp - 1] = calc.divide((T) s[sp - 1], (T) s[sp]);
+                    break;
+                case Bytecode.MOD:
+                    sp--;
+                    s[sp - 1] = calc.mod((T) s[sp - 1], (T) s[sp]);
+                    break;
+                case Bytecode.NEGATE:
+                    s[sp - 1] = calc.negate((T) s[sp - 1]);
+                    break;
+                case Bytecode.ABS:
+                    s[sp - 1] = calc.abs((T) s[sp - 1]);
+                    break;
+                case Bytecode.SQUARE:
+                    s[sp - 1] = calc.square((T) s[sp - 1]);
+                    break;
+                case Bytecode.STORE:
+                    s[locals + code[pc++]] = s[sp - 1];
+                    break;
+                default:
+                    s[sp++] = s[locals + code[pc++]];
+            }
+        }
+        return (T) s[0];
+    }
+
+    private static int variable(int[] frame, int slot) {
+        if (frame == null) {
+            throw new IllegalStateException("Unbound variable slot: " + slot);
+        }
+        return frame[slot];
+    }
+
+    private static int divisionByZero(EvaluationStatus status, int arg) {
+        return status.fail(EvaluationStatus.ARITHMETIC, "/ by zero", arg, 0);
+    }
+
+    private static class Frame {
+        private final int size;
+        private final int[] ints;
+        private final double[] doubles;
+        private final EvaluationStatus status = new EvaluationStatus();
+        private Object[] values;
+
+        private Frame(int mode, int size) {
+            this.size = size;
+            this.values = mode == GENERIC ? new Object[size] : null;
+            this.ints = mode == GENERIC || mode == DOUBLE ? null : new int[size];
+            this.doubles = mode == DOUBLE ? new double[size] : null;
+        }
+
+        private Object[] values() {
+            if (values == null) {
+                values = new Object[size];
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package expression.bytecode;
+
+import expression.*;
+import expression.calculator.Calculator;
+import expression.parser.VariablesList;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+public class BytecodeFile {
+    private static final int MAGIC = 0x45585042;
+    private static final int VERSION = 2;
+
+    private static final int INT = 0;
+    private static final int LONG = 1;
+    private static final int DOUBLE = 2;
+    private static final int BIG_INTEGER = 3;
+
+    public static void write(Path path, String mode, List<? extends CommonExpression<?>> expressions) throws IOException {
+        write(path, mode, VariablesList.DEFAULT, expressions);
+    }
+
+    public static void write(
+            Path path, String mode, List<String> variables, List<? extends CommonExpression<?>> expressions
+    ) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream records = new DataOutputStream(body);
+        int[] offsets = new int[expressions.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = body.size();
+            writeRecord(records, Bytecode.of(expressions.get(i)));
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, mode);
+            writeVarInt(out, variables.size());
+            for (String variable : variables) {
+                writeString(out, variable);
+            }
+            out.writeInt(offsets.length);
+            for (int offset : offsets) {
+                out.writeInt(offset);
+            }
+            body.writeTo(out);
+        }
+    }
+
+    public static <T> List<CommonExpression<T>> read(Path path, String mode, Calculator<T> calc) throws IOException {
+        return open(path, mode, calc, Records::tree);
+    }
+
+    public static <T> List<BytecodeExpression<T>> readBytecode(
+            Path path, String mode, Calculator<T> calc
+    ) throws IOException {
+        return open(path, mode, calc, (records, bytecode) -> BytecodeExpression.of(bytecode, calc));
+    }
+
+    private static <T, E> List<E> open(
+            Path path, String mode, Calculator<T> calc, Decoder<T, E> decoder
+    ) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Expression file is too large: " + channel.size() + " bytes");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        Reader in = new Reader(buffer, 0);
+        if (buffer.limit() < 8 || in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not an expression file: " + path);
+        }
+        String fileMode = readString(in);
+        if (!fileMode.equals(mode)) {
+            throw new IOException(String.format("Expression file was written for mode %s, not %s", fileMode, mode));
+        }
+        List<String> variables = new ArrayList<>();
+        for (int i = in.readVarInt(); i > 0; i--) {
+            variables.add(readString(in));
+        }
+        int count = in.readInt();
+        int table = in.position;
+        return new Records<>(buffer, table, table + 4 * count, count, calc, List.copyOf(variables), decoder);
+    }
+
+    private static void writeRecord(DataOutputStream out, Bytecode bytecode) throws IOException {
+        writeVarInt(out, bytecode.code.length);
+        writeVarInt(out, bytecode.constants.length);
+        writeVarInt(out, bytecode.maxStack);
+        writeVarInt(out, bytecode.locals);
+        for (int op : bytecode.code) {
+            writeVarInt(out, op);
+        }
+        for (Object constant : bytecode.constants) {
+            if (constant instanceof Integer || constant instanceof Short || constant instanceof Byte) {
+                out.writeByte(INT);
+                writeVarLong(out, ((Number) constant).intValue());
+            } else if (constant instanceof Long) {
+                out.writeByte(LONG);
+                writeVarLong(out, (Long) constant);
+            } else if (constant instanceof Double) {
+                out.writeByte(DOUBLE);
+                out.writeDouble((Double) constant);
+            } else if (constant instanceof BigInteger) {
+                byte[] magnitude = ((BigInteger) constant).toByteArray();
+                out.writeByte(BIG_INTEGER);
+                writeVarInt(out, magnitude.length);
+                out.write(magnitude);
+            } else {
+                throw new IllegalArgumentException("Cannot serialize constant: " + constant.getClass().getSimpleName());
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(Reader in) {
+        byte[] bytes = new byte[in.readVarInt()];
+        in.buffer.get(in.position, bytes);
+        in.position += bytes.length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.write((int) (zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        out.write((int) zigzag);
+    }
+
+    private interface Decoder<T, E> {
+        E decode(Records<T, E> records, Bytecode bytecode);
+    }
+
+    private static class Records<T, E> extends AbstractList<E> implements RandomAccess {
+        private final ByteBuffer buffer;
+        private final int table;
+        private final int body;
+        private final int count;
+        private final Calculator<T> calc;
+        private final Decoder<T, E> decoder;
+        private final CommonExpression<T>[] slots;
+
+        @SuppressWarnings("unchecked")
+        private Records(
+                ByteBuffer buffer, int table, int body, int count, Calculator<T> calc, List<String> variables,
+                Decoder<T, E> decoder
+        ) {
+            this.buffer = buffer;
+            this.table = table;
+            this.body = body;
+            this.count = count;
+            this.calc = calc;
+            this.decoder = decoder;
+            this.slots = (CommonExpression<T>[]) new CommonExpression<?>[variables.size()];
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = new Variable<>(calc, variables.get(i), i);
+            }
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+
+        @Override
+        public E get(int index) {
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + count);
+            }
+            return decoder.decode(this, bytecode(new Reader(buffer, body + buffer.getInt(table + 4 * index))));
+        }
+
+        private Bytecode bytecode(Reader in) {
+            int[] code = new int[in.readVarInt()];
+            Object[] constants = new Object[in.readVarInt()];
+            int maxStack = in.readVarInt();
+            int locals = in.readVarInt();
+            for (int i = 0; i < code.length; i++) {
+                code[i] = in.readVarInt();
+            }
+            for (int i = 0; i < constants.length; i++) {
+                int tag = in.readByte();
+                if (tag == INT) {
+                    constants[i] = calc.valueOf((int) in.readVarLong());
+                } else if (tag == LONG) {
+                    constants[i] = in.readVarLong();
+                } else {
+                    constants[i] = in.readConstant(tag);
+                }
+            }
+            return new Bytecode(code, constants, maxStack, locals);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T, E> CommonExpression<T> tree(Records<T, E> records, Bytecode bytecode) {
+            Calculator<T> calc = records.calc;
+            int[] code = bytecode.code;
+            CommonExpression<T>[] constants = (CommonExpression<T>[]) new CommonExpression<?>[bytecode.constants.length];
+            for (int i = 0; i < constants.length; i++) {
+                constants[i] = new Const<>((T) bytecode.constants[i]);
+            }
+            CommonExpression<T>[] stack = (CommonExpression<T>[]) new CommonExpression<?>[bytecode.maxStack];
+            CommonExpression<T>[] locals = (CommonExpression<T>[]) new CommonExpression<?>[bytecode.locals];
+            int sp = 0;
+            for (int pc = 0; pc < code.length; ) {
+                int op = code[pc++];
+                switch (op) {
+                    case Bytecode.CONST:
+                        stack[sp++] = constants[code[pc++]];
+                        break;
+                    case Bytecode.X:
+                    case Bytecode.Y:
+                    case Bytecode.Z:
+                        stack[sp++] = records.variable(op - Bytecode.X);
+                        break;
+                    case Bytecode.VARIABLE:
+                        stack[sp++] = records.variable(code[pc++]);
+                        break;
+                    case Bytecode.ADD:
+                        sp--;
+                        stack[sp - 1] = new Add<>(calc, stack[sp - 1], stack[sp]);
+                        break;
+                    case Bytecode.SUBTRACT:
+                        sp--;
+                        stack[sp - 1] = new Subtract<>(calc, stack[sp - 1], stack[sp]);
+                        break;
+                    case Bytecode.MULTIPLY:
+                        sp--;
+                        stack[sp - 1] = new Multiply<>(calc, stack[sp - 1], stack[sp]);
+                        break;
+                    case Bytecode.DIVIDE:
+                        sp--;
+                        stack[sp - 1] = new Divide<>(calc, stack[sp - 1], stack[sp]);
+                        break;
+                    case Bytecode.MOD:
+                        sp--;
+                        stack[sp - 1] = new Mod<>(calc, stack[sp - 1], stack[sp]);
+                        break;
+                    case Bytecode.NEGATE:
+                        stack[sp - 1] = new Negate<>(calc, stack[sp - 1]);
+                        break;
+                    case Bytecode.ABS:
+                        stack[sp - 1] = new Abs<>(calc, stack[sp - 1]);
+                        break;
+                    case Bytecode.SQUARE:
+                        stack[sp - 1] = new Square<>(calc, stack[sp - 1]);
+                        break;
+                    case Bytecode.STORE:
+                        locals[code[pc++]] = stack[sp - 1];
+                        break;
+                    case Bytecode.LOAD:
+                        stack[sp++] = locals[code[pc++]];
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown opcode: " + op);
+                }
+            }
+            return stack[0];
+        }
+
+        private CommonExpression<T> variable(int slot) {
+            return slots[slot];
+        }
+    }
+
+    private static class Reader {
+        private final ByteBuffer buffer;
+        private int position;
+
+        private Reader(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        private int readByte() {
+            return buffer.get(position++);
+        }
+
+        private int readInt() {
+            int value = buffer.getInt(position);
+            position += Integer.BYTES;
+            return value;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buffer.get(position++);
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        private long readVarLong() {
+            long zigzag = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buffer.get(position++);
+                zigzag |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return (zigzag >>> 1) ^ -(zigzag & 1);
+                }
+            }
+        }
+
+        private Object readConstant(int tag) {
+            if (tag == DOUBLE) {
+                double value = buffer.getDouble(position);
+                position += Double.BYTES;
+                return value;
+            }
+            byte[] magnitude = new byte[readVarInt()];
+            buffer.get(position, magnitude);
+            position += magnitude.length;
+            return new BigInteger(magnitude);
+        }
+    }
+}
@@ -6,6 +6,11 @@ public abstract class AbstractCalculator<T> implements Calculator<T> {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public T valueOf(long arg) throws IllegalArgumentException {
+        return valueOf(Long.toString(arg));
+    }
+
     @Override
     public T valueOf(String str) throws IllegalArgumentException {
         try {
@@ -15,6 +20,11 @@ public abstract class AbstractCalculator<T> implements Calculator<T> {
         }
     }
 
+    @Override
+    public T output(T value) {
+        return value;
+    }
+
     protected T parse(String str) {
         throw new UnsupportedOperationException();
     }
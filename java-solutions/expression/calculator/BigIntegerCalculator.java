@@ -9,6 +9,11 @@ public class BigIntegerCalculator extends AbstractCalculator<BigInteger> {
         return BigInteger.valueOf(arg);
     }
 
+    @Override
+    public BigInteger valueOf(long arg) {
+        return BigInteger.valueOf(arg);
+    }
+
     @Override
     protected BigInteger parse(String str) {
         return new BigInteger(str);
@@ -1,9 +1,14 @@
 package expression.calculator;
 
-public class ByteCalculator extends AbstractCalculator<Byte> {
+public class ByteCalculator extends AbstractCalculator<Byte> implements PrimitiveIntCalculator {
     @Override
     public Byte valueOf(int arg) {
-        return (byte) arg;
+        return (byte) fromInt(arg);
+    }
+
+    @Override
+    public Byte valueOf(long arg) throws IllegalArgumentException {
+        return arg == (byte) arg ? valueOf((int) arg) : super.valueOf(arg);
     }
 
     @Override
@@ -13,41 +18,86 @@ public class ByteCalculator extends AbstractCalculator<Byte> {
 
     @Override
     public Byte add(Byte arg1, Byte arg2) {
-        return (byte) (arg1 + arg2);
+        return (byte) add((int) arg1, (int) arg2);
     }
 
     @Override
     public Byte subtract(Byte arg1, Byte arg2) {
-        return (byte) (arg1 - arg2);
+        return (byte) subtract((int) arg1, (int) arg2);
     }
 
     @Override
     public Byte multiply(Byte arg1, Byte arg2) {
-        return (byte) (arg1 * arg2);
+        return (byte) multiply((int) arg1, (int) arg2);
     }
 
     @Override
     public Byte divide(Byte arg1, Byte arg2) {
-        return (byte) (arg1 / arg2);
+        return (byte) divide((int) arg1, (int) arg2);
     }
 
     @Override
     public Byte negate(Byte arg) {
-        return (byte) (-arg);
+        return (byte) negate((int) arg);
     }
 
     @Override
     public Byte abs(Byte arg) {
-        return arg >= 0 ? arg : negate(arg);
+        return (byte) abs((int) arg);
     }
 
     @Override
     public Byte square(Byte arg) {
-        return (byte) (arg * arg);
+        return (byte) square((int) arg);
     }
 
     @Override
     public Byte mod(Byte arg1, Byte arg2) {
+        return (byte) mod((int) arg1, (int) arg2);
+    }
+
+    @Override
+    public int fromInt(int arg) {
+        return (byte) arg;
+    }
+
+    @Override
+    public int add(int arg1, int arg2) {
+        return (byte) (arg1 + arg2);
+    }
+
+    @Override
+    public int subtract(int arg1, int arg2) {
+        return (byte) (arg1 - arg2);
+    }
+
+    @Override
+    public int multiply(int arg1, int arg2) {
+        return (byte) (arg1 * arg2);
+    }
+
+    @Override
+    public int divide(int arg1, int arg2) {
+        return (byte) (arg1 / arg2);
+    }
+
+    @Override
+    public int negate(int arg) {
+        return (byte) (-arg);
+    }
+
+    @Override
+    public int abs(int arg) {
+        return arg >= 0 ? arg : negate(arg);
+    }
+
+    @Override
+    public int square(int arg) {
+        return (byte) (arg * arg);
+    }
+
+    @Override
+    public int mod(int arg1, int arg2) {
         return (byte) (arg1 % arg2);
     }
 
@@ -3,8 +3,12 @@ package expression.calculator;
 public interface Calculator<T> {
     T valueOf(int arg);
 
+    T valueOf(long arg) throws IllegalArgumentException;
+
     T valueOf(String str) throws IllegalArgumentException;
 
+    T output(T value);
+
     T add(T arg1, T arg2);
 
     T subtract(T arg1, T arg2);
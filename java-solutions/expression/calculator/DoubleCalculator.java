@@ -1,8 +1,13 @@
 package expression.calculator;
 
-public class DoubleCalculator extends AbstractCalculator<Double> {
+public class DoubleCalculator extends AbstractCalculator<Double> implements PrimitiveDoubleCalculator {
     @Override
     public Double valueOf(int arg) {
+        return fromInt(arg);
+    }
+
+    @Override
+    public Double valueOf(long arg) {
         return (double) arg;
     }
 
@@ -13,41 +18,86 @@ public class DoubleCalculator extends AbstractCalculator<Double> {
 
     @Override
     public Double add(Double arg1, Double arg2) {
-        return arg1 + arg2;
+        return add((double) arg1, (double) arg2);
     }
 
     @Override
     public Double subtract(Double arg1, Double arg2) {
-        return arg1 - arg2;
+        return subtract((double) arg1, (double) arg2);
     }
 
     @Override
     public Double multiply(Double arg1, Double arg2) {
-        return arg1 * arg2;
+        return multiply((double) arg1, (double) arg2);
     }
 
     @Override
     public Double divide(Double arg1, Double arg2) {
-        return arg1 / arg2;
+        return divide((double) arg1, (double) arg2);
     }
 
     @Override
     public Double negate(Double arg) {
-        return -arg;
+        return negate((double) arg);
     }
 
     @Override
     public Double abs(Double arg) {
-        return arg >= 0 ? arg : -arg;
+        return abs((double) arg);
     }
 
     @Override
     public Double square(Double arg) {
-        return arg * arg;
+        return square((double) arg);
     }
 
     @Override
     public Double mod (Double arg1, Double arg2) {
+        return mod((double) arg1, (double) arg2);
+    }
+
+    @Override
+    public double fromInt(int arg) {
+        return arg;
+    }
+
+    @Override
+    public double add(double arg1, double arg2) {
+        return arg1 + arg2;
+    }
+
+    @Override
+    public double subtract(double arg1, double arg2) {
+        return arg1 - arg2;
+    }
+
+    @Override
+    public double multiply(double arg1, double arg2) {
+        return arg1 * arg2;
+    }
+
+    @Override
+    public double divide(double arg1, double arg2) {
+        return arg1 / arg2;
+    }
+
+    @Override
+    public double negate(double arg) {
+        return -arg;
+    }
+
+    @Override
+    public double abs(double arg) {
+        return absValue(arg);
+    }
+
+    @Override
+    public double square(double arg) {
+        return arg * arg;
+    }
+
+    @Override
+    public double mod(double arg1, double arg2) {
         return arg1 % arg2;
     }
 
@@ -55,4 +105,8 @@ public class DoubleCalculator extends AbstractCalculator<Double> {
     public boolean isValidSymbol(char symbol) {
         return symbol == '.' || ('0' <= symbol && symbol <= '9');
     }
+
+    public static double absValue(double arg) {
+        return arg >= 0 ? arg : -arg;
+    }
 }
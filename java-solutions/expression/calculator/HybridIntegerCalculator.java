@@ -0,0 +1,177 @@
+package expression.calculator;
+
+import expression.exceptions.DivisionByZeroException;
+import expression.exceptions.EvaluationStatus;
+import java.math.BigInteger;
+
+public class HybridIntegerCalculator extends AbstractCalculator<Number> implements PrimitiveLongCalculator {
+    private static final int LONG_BITS = 63;
+
+    @Override
+    public Number valueOf(int arg) {
+        return (long) arg;
+    }
+
+    @Override
+    public Number valueOf(long arg) {
+        return arg;
+    }
+
+    @Override
+    protected Number parse(String str) {
+        try {
+            return Long.parseLong(str);
+        } catch (NumberFormatException e) {
+            return normalize(new BigInteger(str));
+        }
+    }
+
+    @Override
+    public Number add(Number arg1, Number arg2) {
+        if (arg1 instanceof Long && arg2 instanceof Long) {
+            try {
+                return Math.addExact((long) arg1, (long) arg2);
+            } catch (ArithmeticException ignored) {
+            }
+        }
+        return normalize(big(arg1).add(big(arg2)));
+    }
+
+    @Override
+    public Number subtract(Number arg1, Number arg2) {
+        if (arg1 instanceof Long && arg2 instanceof Long) {
+            try {
+                return Math.subtractExact((long) arg1, (long) arg2);
+            } catch (ArithmeticException ignored) {
+            }
+        }
+        return normalize(big(arg1).subtract(big(arg2)));
+    }
+
+    @Override
+    public Number multiply(Number arg1, Number arg2) {
+        if (arg1 instanceof Long && arg2 instanceof Long) {
+            try {
+                return Math.multiplyExact((long) arg1, (long) arg2);
+            } catch (ArithmeticException ignored) {
+            }
+        }
+        return normalize(big(arg1).multiply(big(arg2)));
+    }
+
+    @Override
+    public Number divide(Number arg1, Number arg2) {
+        if (arg2 instanceof Long && (long) arg2 == 0) {
+            throw new DivisionByZeroException(String.format("Division by zero: %d / %d", arg1, arg2));
+        }
+        if (arg1 instanceof Long && arg2 instanceof Long && !((long) arg1 == Long.MIN_VALUE && (long) arg2 == -1)) {
+            return (long) arg1 / (long) arg2;
+        }
+        return normalize(big(arg1).divide(big(arg2)));
+    }
+
+    @Override
+    public Number negate(Number arg) {
+        if (arg instanceof Long) {
+            try {
+                return Math.negateExact((long) arg);
+            } catch (ArithmeticException ignored) {
+            }
+        }
+        return normalize(big(arg).negate());
+    }
+
+    @Override
+    public Number abs(Number arg) {
+        if (arg instanceof Long && (long) arg != Long.MIN_VALUE) {
+            return Math.abs((long) arg);
+        }
+        return normalize(big(arg).abs());
+    }
+
+    @Override
+    public Number square(Number arg) {
+        return multiply(arg, arg);
+    }
+
+    @Override
+    public Number mod(Number arg1, Number arg2) {
+        if (arg1 instanceof Long && arg2 instanceof Long && (long) arg2 > 0) {
+            return Math.floorMod((long) arg1, (long) arg2);
+        }
+        return normalize(big(arg1).mod(big(arg2)));
+    }
+
+    @Override
+    public long fromInt(int arg) {
+        return arg;
+    }
+
+    @Override
+    public long add(long arg1, long arg2, EvaluationStatus status) {
+        long result = arg1 + arg2;
+        return ((arg1 ^ result) & (arg2 ^ result)) < 0 ? overflow(status, "%d + %d", arg1, arg2) : result;
+    }
+
+    @Override
+    public long subtract(long arg1, long arg2, EvaluationStatus status) {
+        long result = arg1 - arg2;
+        return ((arg1 ^ arg2) & (arg1 ^ result)) < 0 ? overflow(status, "%d - %d", arg1, arg2) : result;
+    }
+
+    @Override
+    public long multiply(long arg1, long arg2, EvaluationStatus status) {
+        long result = arg1 * arg2;
+        return Math.multiplyHigh(arg1, arg2) != result >> 63 ? overflow(status, "%d * %d", arg1, arg2) : result;
+    }
+
+    @Override
+    public long divide(long arg1, long arg2, EvaluationStatus status) {
+        if (arg2 == 0) {
+            return status.fail(EvaluationStatus.DIVISION_BY_ZERO, "Division by zero: %d / %d", arg1, arg2);
+        } else if (arg1 == Long.MIN_VALUE && arg2 == -1) {
+            return overflow(status, "%d / %d", arg1, arg2);
+        }
+        return arg1 / arg2;
+    }
+
+    @Override
+    public long negate(long arg, EvaluationStatus status) {
+        return arg == Long.MIN_VALUE ? overflow(status, "-(%d)", arg, 0) : -arg;
+    }
+
+    @Override
+    public long abs(long arg, EvaluationStatus status) {
+        return arg == Long.MIN_VALUE ? overflow(status, "abs(%d)", arg, 0) : Math.abs(arg);
+    }
+
+    @Override
+    public long square(long arg, EvaluationStatus status) {
+        return multiply(arg, arg, status);
+    }
+
+    @Override
+    public long mod(long arg1, long arg2, EvaluationStatus status) {
+        if (arg2 <= 0) {
+            return status.fail(EvaluationStatus.ARITHMETIC, "Non-positive modulus: %d mod %d", arg1, arg2);
+        }
+        return Math.floorMod(arg1, arg2);
+    }
+
+    @Override
+    public boolean isValidSymbol(char symbol) {
+        return '0' <= symbol && symbol <= '9';
+    }
+
+    public static BigInteger big(Number arg) {
+        return arg instanceof BigInteger ? (BigInteger) arg : BigInteger.valueOf(arg.longValue());
+    }
+
+    private static long overflow(EvaluationStatus status, String format, long arg1, long arg2) {
+        return status.fail(EvaluationStatus.OVERFLOW, "Overflow: " + format + " does not fit in long", arg1, arg2);
+    }
+
+    private static Number normalize(BigInteger arg) {
+        return arg.bitLength() <= LONG_BITS ? (Number) arg.longValue() : arg;
+    }
+}
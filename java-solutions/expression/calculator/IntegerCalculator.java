@@ -3,73 +3,174 @@ package expression.calculator;
 import expression.exceptions.*;
 
 public class IntegerCalculator extends UncheckedIntegerCalculator {
+    private static final int MAX_SQUARE_ROOT = 46340;
+
     @Override
-    public Integer add(Integer arg1, Integer arg2) {
+    public int add(int arg1, int arg2) {
+        return checkedAdd(arg1, arg2);
+    }
+
+    @Override
+    public int subtract(int arg1, int arg2) {
+        return checkedSubtract(arg1, arg2);
+    }
+
+    @Override
+    public int multiply(int arg1, int arg2) {
+        return checkedMultiply(arg1, arg2);
+    }
+
+    @Override
+    public int divide(int arg1, int arg2) {
+        return checkedDivide(arg1, arg2);
+    }
+
+    @Override
+    public int negate(int arg) {
+        return checkedNegate(arg);
+    }
+
+    @Override
+    public int abs(int arg) {
+        return checkedAbs(arg);
+    }
+
+    @Override
+    public int square(int arg) {
+        return checkedSquare(arg);
+    }
+
+    @Override
+    public int add(int arg1, int arg2, EvaluationStatus status) {
+        return checkedAdd(arg1, arg2, status);
+    }
+
+    @Override
+    public int subtract(int arg1, int arg2, EvaluationStatus status) {
+        return checkedSubtract(arg1, arg2, status);
+    }
+
+    @Override
+    public int multiply(int arg1, int arg2, EvaluationStatus status) {
+        return checkedMultiply(arg1, arg2, status);
+    }
+
+    @Override
+    public int divide(int arg1, int arg2, EvaluationStatus status) {
+        return checkedDivide(arg1, arg2, status);
+    }
+
+    @Override
+    public int negate(int arg, EvaluationStatus status) {
+        return checkedNegate(arg, status);
+    }
+
+    @Override
+    public int abs(int arg, EvaluationStatus status) {
+        return checkedAbs(arg, status);
+    }
+
+    @Override
+    public int square(int arg, EvaluationStatus status) {
+        return checkedSquare(arg, status);
+    }
+
+    public static int checkedAdd(int arg1, int arg2) {
+        return checkedAdd(arg1, arg2, null);
+    }
+
+    public static int checkedSubtract(int arg1, int arg2) {
+        return checkedSubtract(arg1, arg2, null);
+    }
+
+    public static int checkedMultiply(int arg1, int arg2) {
+        return checkedMultiply(arg1, arg2, null);
+    }
+
+    public static int checkedDivide(int arg1, int arg2) {
+        return checkedDivide(arg1, arg2, null);
+    }
+
+    public static int checkedNegate(int arg) {
+        return checkedNegate(arg, null);
+    }
+
+    public static int checkedAbs(int arg) {
+        return checkedAbs(arg, null);
+    }
+
+    public static int checkedSquare(int arg) {
+        return checkedSquare(arg, null);
+    }
+
+    public static int checkedAdd(int arg1, int arg2, EvaluationStatus status) {
         if (arg2 > 0 && arg1 > Integer.MAX_VALUE - arg2){
-            throw new OverflowException(String.format("Overflow: %d + %d is greater than Integer.MAX_VALUE", arg1, arg2));
+            return fail(status, EvaluationStatus.OVERFLOW, "Overflow: %d + %d is greater than Integer.MAX_VALUE", arg1, arg2);
         } else if (arg2 < 0 && arg1 < Integer.MIN_VALUE - arg2) {
-            throw new OverflowException(String.format("Overflow: %d + %d is less than Integer.MIN_VALUE", arg1, arg2));
+            return fail(status, EvaluationStatus.OVERFLOW, "Overflow: %d + %d is less than Integer.MIN_VALUE", arg1, arg2);
         }
         return arg1 + arg2;
     }
 
-    @Override
-    public Integer subtract(Integer arg1, Integer arg2) {
+    public static int checkedSubtract(int arg1, int arg2, EvaluationStatus status) {
         if (arg2 < 0 && arg1 > Integer.MAX_VALUE + arg2){
-            throw new OverflowException(String.format("Overflow: %d - %d is greater than Integer.MAX_VALUE", arg1, arg2));
+            return fail(status, EvaluationStatus.OVERFLOW, "Overflow: %d - %d is greater than Integer.MAX_VALUE", arg1, arg2);
         } else if (arg2 > 0 && arg1 < Integer.MIN_VALUE + arg2){
-            throw new OverflowException(String.format("Overflow: %d - %d is less than Integer.MIN_VALUE", arg1, arg2));
+            return fail(status, EvaluationStatus.OVERFLOW, "Overflow: %d - %d is less than Integer.MIN_VALUE", arg1, arg2);
         }
         return arg1 - arg2;
     }
 
-    @Override
-    public Integer multiply(Integer arg1, Integer arg2) {
+    public static int checkedMultiply(int arg1, int arg2, EvaluationStatus status) {
         if (arg1 > arg2) {
             int tmp = arg2;
             arg2 = arg1;
             arg1 = tmp;
         }
         if ((arg2 > 0 && arg1 > Integer.MAX_VALUE / arg2) || (arg2 < 0 && arg1 < Integer.MAX_VALUE / arg2)) {
-            throw new OverflowException(String.format("Overflow: %d * %d is greater than Integer.MAX_VALUE", arg1, arg2));
+            return fail(status, EvaluationStatus.OVERFLOW, "Overflow: %d * %d is greater than Integer.MAX_VALUE", arg1, arg2);
         } else if ((arg2 > 0 && arg1 < Integer.MIN_VALUE / arg2) || (arg2 < 0 && -arg1 < Integer.MIN_VALUE / (-arg2))) {
-            throw new OverflowException(String.format("Overflow: %d * %d is less than Integer.MIN_VALUE", arg1, arg2));
+            return fail(status, EvaluationStatus.OVERFLOW, "Overflow: %d * %d is less than Integer.MIN_VALUE", arg1, arg2);
         }
         return arg1 * arg2;
     }
 
-    @Override
-    public Integer divide(Integer arg1, Integer arg2) {
+    public static int checkedDivide(int arg1, int arg2, EvaluationStatus status) {
         if (arg2 == 0) {
-            throw new DivisionByZeroException(String.format("Division by zero: %d / %d", arg1, arg2));
+            return fail(status, EvaluationStatus.DIVISION_BY_ZERO, "Division by zero: %d / %d", arg1, arg2);
         } else if (arg1 == Integer.MIN_VALUE && arg2 == -1) {
-            throw new OverflowException(String.format("Overflow: %d / %d is greater than Integer.MAX_VALUE", arg1, arg2));
+            return fail(status, EvaluationStatus.OVERFLOW, "Overflow: %d / %d is greater than Integer.MAX_VALUE", arg1, arg2);
         }
         return arg1 / arg2;
     }
 
-    @Override
-    public Integer negate(Integer arg) {
+    public static int checkedNegate(int arg, EvaluationStatus status) {
         if (arg == Integer.MIN_VALUE) {
-            throw new OverflowException(String.format("Overflow: -(%d) is greater than Integer.MAX_VALUE", arg));
+            return fail(status, EvaluationStatus.OVERFLOW, "Overflow: -(%d) is greater than Integer.MAX_VALUE", arg, 0);
         }
         return -arg;
     }
 
-    @Override
-    public Integer abs(Integer arg) {
+    public static int checkedAbs(int arg, EvaluationStatus status) {
         if (arg == Integer.MIN_VALUE) {
-            throw new OverflowException(String.format("Overflow: abs(%d) is greater than Integer.MAX_VALUE", arg));
+            return fail(status, EvaluationStatus.OVERFLOW, "Overflow: abs(%d) is greater than Integer.MAX_VALUE", arg, 0);
         }
         return arg >= 0 ? arg : -arg;
     }
 
-    @Override
-    public Integer square(Integer arg) {
-        try {
-            return multiply(arg, arg);
-        } catch (OverflowException e) {
-            throw new OverflowException(String.format("Overflow: (%d)^2 is greater than Integer.MAX_VALUE", arg));
+    public static int checkedSquare(int arg, EvaluationStatus status) {
+        if (arg > MAX_SQUARE_ROOT || arg < -MAX_SQUARE_ROOT) {
+            return fail(status, EvaluationStatus.OVERFLOW, "Overflow: (%d)^2 is greater than Integer.MAX_VALUE", arg, 0);
+        }
+        return arg * arg;
+    }
+
+    static int fail(EvaluationStatus status, int code, String format, int arg1, int arg2) {
+        if (status == null) {
+            status = new EvaluationStatus();
+            status.fail(code, format, arg1, arg2);
+            throw status.toException();
         }
+        return status.fail(code, format, arg1, arg2);
     }
 }
@@ -1,62 +1,114 @@
 package expression.calculator;
 
 import expression.exceptions.DivisionByZeroException;
+import expression.exceptions.EvaluationStatus;
+
+import java.math.BigInteger;
 
 public class ModIntegerCalculator extends UncheckedIntegerCalculator {
-    private static final int p = 1009;
-    private static final int[] rev = new int[p];
+    public static final int DEFAULT_MODULUS = 1009;
+
+    private final int p;
+    private final long barrett;
+    private final int shift;
 
     public ModIntegerCalculator() {
-        rev[1] = 1;
-        for (int i = 2; i < p; i++)
-            rev[i] = (p - (p / i) * rev[p % i] % p) % p;
+        this(DEFAULT_MODULUS);
+    }
+
+    public ModIntegerCalculator(int p) {
+        if (p < 2 || !BigInteger.valueOf(p).isProbablePrime(64)) {
+            throw new IllegalArgumentException("Invalid modulus: " + p + " is not a prime");
+        }
+        this.p = p;
+        barrett = Long.divideUnsigned(-1L, p);
+        shift = (int) ((1L << 31) % p);
+    }
+
+    public int getModulus() {
+        return p;
+    }
+
+    private int reduce(long x) {
+        long r = x - Math.multiplyHigh(x, barrett) * p;
+        return (int) (r >= p ? r - p : r);
+    }
+
+    private int normalize(int arg) {
+        return 0 <= arg && arg < p ? arg : fromInt(arg);
+    }
+
+    private int inverse(int arg) {
+        long a = arg, b = p, x = 1, y = 0;
+        while (b != 0) {
+            long q = a / b, t = a - q * b;
+            a = b;
+            b = t;
+            t = x - q * y;
+            x = y;
+            y = t;
+        }
+        return a == 1 ? (int) (x < 0 ? x + p : x) : 0;
     }
 
     @Override
-    public Integer valueOf(int arg) {
-        return (arg % p + p) % p;
+    public int fromInt(int arg) {
+        int r = reduce((long) arg - Integer.MIN_VALUE) - shift;
+        return r < 0 ? r + p : r;
     }
 
     @Override
-    public Integer add(Integer arg1, Integer arg2) {
-        return (valueOf(arg1) + valueOf(arg2)) % p;
+    public int add(int arg1, int arg2) {
+        long r = (long) normalize(arg1) + normalize(arg2);
+        return (int) (r >= p ? r - p : r);
     }
 
     @Override
-    public Integer subtract(Integer arg1, Integer arg2) {
-        return (valueOf(arg1) - valueOf(arg2) + p) % p;
+    public int subtract(int arg1, int arg2) {
+        int r = normalize(arg1) - normalize(arg2);
+        return r < 0 ? r + p : r;
     }
 
     @Override
-    public Integer multiply(Integer arg1, Integer arg2) {
-        return (valueOf(arg1) * valueOf(arg2)) % p;
+    public int multiply(int arg1, int arg2) {
+        return reduce((long) normalize(arg1) * normalize(arg2));
     }
 
     @Override
-    public Integer divide(Integer arg1, Integer arg2) {
+    public int divide(int arg1, int arg2) {
         if (arg2 == 0) {
             throw new DivisionByZeroException(String.format("Division by zero: %d / %d", arg1, arg2));
         }
-        return (valueOf(arg1) * rev[valueOf(arg2)]) % p;
+        return reduce((long) normalize(arg1) * inverse(normalize(arg2)));
+    }
+
+    @Override
+    public int divide(int arg1, int arg2, EvaluationStatus status) {
+        if (arg2 == 0) {
+            return status.fail(EvaluationStatus.DIVISION_BY_ZERO, "Division by zero: %d / %d", arg1, arg2);
+        }
+        return divide(arg1, arg2);
     }
 
     @Override
-    public Integer negate(Integer arg) {
-        return (-valueOf(arg) + p) % p;
+    public int negate(int arg) {
+        int r = normalize(arg);
+        return r == 0 ? 0 : p - r;
     }
 
     @Override
-    public Integer abs(Integer arg) {
-        return valueOf(arg);
+    public int abs(int arg) {
+        return normalize(arg);
     }
 
     @Override
-    public Integer square(Integer arg) {
-        return (arg * arg) % p;
+    public int square(int arg) {
+        int r = normalize(arg);
+        return reduce((long) r * r);
     }
 
     @Override
-    public Integer mod(Integer arg1, Integer arg2) {
+    public int mod(int arg1, int arg2) {
         return (arg1 % arg2) % p;
     }
 }
@@ -0,0 +1,131 @@
+package expression.calculator;
+
+import expression.exceptions.DivisionByZeroException;
+
+import java.math.BigInteger;
+
+public class ModLongCalculator extends AbstractCalculator<Long> {
+    private final long p;
+    private final long inverse;
+    private final long r2;
+    private final long r3;
+
+    public ModLongCalculator(long p) {
+        if (p < 3 || !BigInteger.valueOf(p).isProbablePrime(64)) {
+            throw new IllegalArgumentException("Invalid modulus: " + p + " is not an odd prime");
+        }
+        this.p = p;
+        long x = p;
+        for (int i = 0; i < 5; i++) {
+            x *= 2 - p * x;
+        }
+        inverse = x;
+        r2 = BigInteger.ONE.shiftLeft(128).mod(BigInteger.valueOf(p)).longValue();
+        r3 = BigInteger.ONE.shiftLeft(192).mod(BigInteger.valueOf(p)).longValue();
+    }
+
+    public long getModulus() {
+        return p;
+    }
+
+    private long redc(long high, long low) {
+        long m = low * inverse;
+        long r = high - Math.multiplyHigh(m, p) - ((m >> 63) & p);
+        return r < 0 ? r + p : r;
+    }
+
+    private long multiply(long a, long b) {
+        return redc(Math.multiplyHigh(a, b), a * b);
+    }
+
+    private long toMontgomery(long arg) {
+        return multiply(Math.floorMod(arg, p), r2);
+    }
+
+    private long fromMontgomery(long arg) {
+        return redc(0, arg);
+    }
+
+    private long inverse(long arg) {
+        long a = arg, b = p, x = 1, y = 0;
+        while (b != 0) {
+            long q = a / b, t = a - q * b;
+            a = b;
+            b = t;
+            t = x - q * y;
+            x = y;
+            y = t;
+        }
+        return x < 0 ? x + p : x;
+    }
+
+    @Override
+    public Long valueOf(int arg) {
+        return toMontgomery(arg);
+    }
+
+    @Override
+    public Long valueOf(long arg) {
+        return toMontgomery(arg);
+    }
+
+    @Override
+    public Long output(Long value) {
+        return fromMontgomery(value);
+    }
+
+    @Override
+    protected Long parse(String str) {
+        return valueOf(Long.parseLong(str));
+    }
+
+    @Override
+    public Long add(Long arg1, Long arg2) {
+        long r = arg1 - (p - arg2);
+        return r < 0 ? r + p : r;
+    }
+
+    @Override
+    public Long subtract(Long arg1, Long arg2) {
+        long r = arg1 - arg2;
+        return r < 0 ? r + p : r;
+    }
+
+    @Override
+    public Long multiply(Long arg1, Long arg2) {
+        return multiply((long) arg1, (long) arg2);
+    }
+
+    @Override
+    public Long divide(Long arg1, Long arg2) {
+        if (arg2 == 0) {
+            throw new DivisionByZeroException(String.format("Division by zero: %d / %d", output(arg1), arg2));
+        }
+        return multiply(multiply((long) arg1, inverse(arg2)), r3);
+    }
+
+    @Override
+    public Long negate(Long arg) {
+        return arg == 0 ? 0 : p - arg;
+    }
+
+    @Override
+    public Long abs(Long arg) {
+        return arg;
+    }
+
+    @Override
+    public Long square(Long arg) {
+        return multiply((long) arg, (long) arg);
+    }
+
+    @Override
+    public Long mod(Long arg1, Long arg2) {
+        return toMontgomery(fromMontgomery(arg1) % fromMontgomery(arg2));
+    }
+
+    @Override
+    public boolean isValidSymbol(char symbol) {
+        return '0' <= symbol && symbol <= '9';
+    }
+}
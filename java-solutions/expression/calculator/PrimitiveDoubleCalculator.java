@@ -0,0 +1,21 @@
+package expression.calculator;
+
+public interface PrimitiveDoubleCalculator {
+    double fromInt(int arg);
+
+    double add(double arg1, double arg2);
+
+    double subtract(double arg1, double arg2);
+
+    double multiply(double arg1, double arg2);
+
+    double divide(double arg1, double arg2);
+
+    double negate(double arg);
+
+    double abs(double arg);
+
+    double square(double arg);
+
+    double mod(double arg1, double arg2);
+}
@@ -0,0 +1,55 @@
+package expression.calculator;
+
+import expression.exceptions.EvaluationStatus;
+
+public interface PrimitiveIntCalculator {
+    int fromInt(int arg);
+
+    int add(int arg1, int arg2);
+
+    int subtract(int arg1, int arg2);
+
+    int multiply(int arg1, int arg2);
+
+    int divide(int arg1, int arg2);
+
+    int negate(int arg);
+
+    int abs(int arg);
+
+    int square(int arg);
+
+    int mod(int arg1, int arg2);
+
+    default int add(int arg1, int arg2, EvaluationStatus status) {
+        return add(arg1, arg2);
+    }
+
+    default int subtract(int arg1, int arg2, EvaluationStatus status) {
+        return subtract(arg1, arg2);
+    }
+
+    default int multiply(int arg1, int arg2, EvaluationStatus status) {
+        return multiply(arg1, arg2);
+    }
+
+    default int divide(int arg1, int arg2, EvaluationStatus status) {
+        return arg2 == 0 ? status.fail(EvaluationStatus.ARITHMETIC, "/ by zero", arg1, arg2) : divide(arg1, arg2);
+    }
+
+    default int negate(int arg, EvaluationStatus status) {
+        return negate(arg);
+    }
+
+    default int abs(int arg, EvaluationStatus status) {
+        return abs(arg);
+    }
+
+    default int square(int arg, EvaluationStatus status) {
+        return square(arg);
+    }
+
+    default int mod(int arg1, int arg2, EvaluationStatus status) {
+        return arg2 == 0 ? status.fail(EvaluationStatus.ARITHMETIC, "/ by zero", arg1, arg2) : mod(arg1, arg2);
+    }
+}
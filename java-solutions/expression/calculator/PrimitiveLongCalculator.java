@@ -0,0 +1,23 @@
+package expression.calculator;
+
+import expression.exceptions.EvaluationStatus;
+
+public interface PrimitiveLongCalculator {
+    long fromInt(int arg);
+
+    long add(long arg1, long arg2, EvaluationStatus status);
+
+    long subtract(long arg1, long arg2, EvaluationStatus status);
+
+    long multiply(long arg1, long arg2, EvaluationStatus status);
+
+    long divide(long arg1, long arg2, EvaluationStatus status);
+
+    long negate(long arg, EvaluationStatus status);
+
+    long abs(long arg, EvaluationStatus status);
+
+    long square(long arg, EvaluationStatus status);
+
+    long mod(long arg1, long arg2, EvaluationStatus status);
+}
@@ -1,9 +1,14 @@
 package expression.calculator;
 
-public class UncheckedIntegerCalculator extends AbstractCalculator<Integer> {
+public class UncheckedIntegerCalculator extends AbstractCalculator<Integer> implements PrimitiveIntCalculator {
     @Override
     public Integer valueOf(int arg) {
-        return arg;
+        return fromInt(arg);
+    }
+
+    @Override
+    public Integer valueOf(long arg) throws IllegalArgumentException {
+        return arg == (int) arg ? valueOf((int) arg) : super.valueOf(arg);
     }
 
     @Override
@@ -13,41 +18,86 @@ public class UncheckedIntegerCalculator extends AbstractCalculator<Integer> {
 
     @Override
     public Integer add(Integer arg1, Integer arg2) {
-        return arg1 + arg2;
+        return add((int) arg1, (int) arg2);
     }
 
     @Override
     public Integer subtract(Integer arg1, Integer arg2) {
-        return arg1 - arg2;
+        return subtract((int) arg1, (int) arg2);
     }
 
     @Override
     public Integer multiply(Integer arg1, Integer arg2) {
-        return arg1 * arg2;
+        return multiply((int) arg1, (int) arg2);
     }
 
     @Override
     public Integer divide(Integer arg1, Integer arg2) {
-        return arg1 / arg2;
+        return divide((int) arg1, (int) arg2);
     }
 
     @Override
     public Integer negate(Integer arg) {
-        return -arg;
+        return negate((int) arg);
     }
 
     @Override
     public Integer abs(Integer arg) {
-        return arg >= 0 ? arg : -arg;
+        return abs((int) arg);
     }
 
     @Override
     public Integer square(Integer arg) {
-        return arg * arg;
+        return square((int) arg);
     }
 
     @Override
     public Integer mod(Integer arg1, Integer arg2) {
+        return mod((int) arg1, (int) arg2);
+    }
+
+    @Override
+    public int fromInt(int arg) {
+        return arg;
+    }
+
+    @Override
+    public int add(int arg1, int arg2) {
+        return arg1 + arg2;
+    }
+
+    @Override
+    public int subtract(int arg1, int arg2) {
+        return arg1 - arg2;
+    }
+
+    @Override
+    public int multiply(int arg1, int arg2) {
+        return arg1 * arg2;
+    }
+
+    @Override
+    public int divide(int arg1, int arg2) {
+        return arg1 / arg2;
+    }
+
+    @Override
+    public int negate(int arg) {
+        return -arg;
+    }
+
+    @Override
+    public int abs(int arg) {
+        return arg >= 0 ? arg : -arg;
+    }
+
+    @Override
+    public int square(int arg) {
+        return arg * arg;
+    }
+
+    @Override
+    public int mod(int arg1, int arg2) {
         return arg1 % arg2;
     }
 
@@ -0,0 +1,190 @@
+package expression.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+class ClassWriter {
+    private static final int VERSION = 52;
+
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final Map<String, Integer> entries = new HashMap<>();
+    private int poolSize = 1;
+
+    private final ByteArrayOutputStream membersBytes = new ByteArrayOutputStream();
+    private final DataOutputStream members = new DataOutputStream(membersBytes);
+    private int fieldsCount = 0;
+    private final ByteArrayOutputStream methodsBytes = new ByteArrayOutputStream();
+    private final DataOutputStream methods = new DataOutputStream(methodsBytes);
+    private int methodsCount = 0;
+
+    private final String name;
+    private final String superName;
+    private final String[] interfaces;
+
+    ClassWriter(String name, String superName, String... interfaces) {
+        this.name = name;
+        this.superName = superName;
+        this.interfaces = interfaces;
+    }
+
+    int utf8(String value) {
+        Integer index = entries.get("U" + value);
+        if (index != null) {
+            return index;
+        }
+        try {
+            pool.writeByte(1);
+            pool.writeUTF(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return register("U" + value, 1);
+    }
+
+    int classRef(String internalName) {
+        return entry("C" + internalName, 7, utf8(internalName));
+    }
+
+    int fieldRef(String owner, String fieldName, String descriptor) {
+        return memberRef(9, owner, fieldName, descriptor);
+    }
+
+    int methodRef(String owner, String methodName, String descriptor) {
+        return memberRef(10, owner, methodName, descriptor);
+    }
+
+    int interfaceMethodRef(String owner, String methodName, String descriptor) {
+        return memberRef(11, owner, methodName, descriptor);
+    }
+
+    int intConst(int value) {
+        Integer index = entries.get("I" + value);
+        if (index != null) {
+            return index;
+        }
+        try {
+            pool.writeByte(3);
+            pool.writeInt(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return register("I" + value, 1);
+    }
+
+    int doubleConst(double value) {
+        String key = "D" + Double.doubleToRawLongBits(value);
+        Integer index = entries.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            pool.writeByte(6);
+            pool.writeLong(Double.doubleToRawLongBits(value));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return register(key, 2);
+    }
+
+    void addField(int access, String fieldName, String descriptor) {
+        try {
+            members.writeShort(access);
+            members.writeShort(utf8(fieldName));
+            members.writeShort(utf8(descriptor));
+            members.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        fieldsCount++;
+    }
+
+    void addMethod(int access, String methodName, String descriptor, CodeWriter code) {
+        byte[] bytes = code.toByteArray();
+        try {
+            methods.writeShort(access);
+            methods.writeShort(utf8(methodName));
+            methods.writeShort(utf8(descriptor));
+            methods.writeShort(1);
+            methods.writeShort(utf8("Code"));
+            methods.writeInt(12 + bytes.length);
+            methods.writeShort(code.getMaxStack());
+            methods.writeShort(code.getMaxLocals());
+            methods.writeInt(bytes.length);
+            methods.write(bytes);
+            methods.writeShort(0);
+            methods.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        methodsCount++;
+    }
+
+    byte[] toByteArray() {
+        int thisIndex = classRef(name);
+        int superIndex = classRef(superName);
+        int[] interfaceIndices = new int[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaceIndices[i] = classRef(interfaces[i]);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(poolSize);
+            poolBytes.writeTo(out);
+            out.writeShort(0x0031);
+            out.writeShort(thisIndex);
+            out.writeShort(superIndex);
+            out.writeShort(interfaceIndices.length);
+            for (int index : interfaceIndices) {
+                out.writeShort(index);
+            }
+            out.writeShort(fieldsCount);
+            membersBytes.writeTo(out);
+            out.writeShort(methodsCount);
+            methodsBytes.writeTo(out);
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private int memberRef(int tag, String owner, String memberName, String descriptor) {
+        int ownerIndex = classRef(owner);
+        int nameAndType = entry("N" + memberName + ":" + descriptor, 12, utf8(memberName), utf8(descriptor));
+        return entry(tag + owner + "." + memberName + ":" + descriptor, tag, ownerIndex, nameAndType);
+    }
+
+    private int entry(String key, int tag, int... references) {
+        Integer index = entries.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            pool.writeByte(tag);
+            for (int reference : references) {
+                pool.writeShort(reference);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return register(key, 1);
+    }
+
+    private int register(String key, int slots) {
+        if (poolSize + slots > 0xFFFF) {
+            throw new IllegalStateException("Constant pool overflow");
+        }
+        int index = poolSize;
+        entries.put(key, index);
+        poolSize += slots;
+        return index;
+    }
+}
@@ -0,0 +1,187 @@
+package expression.compiler;
+
+import java.io.ByteArrayOutputStream;
+
+class CodeWriter {
+    static final int ACONST_NULL = 0x01;
+    static final int ILOAD = 0x15;
+    static final int DLOAD = 0x18;
+    static final int ALOAD = 0x19;
+    static final int ISTORE = 0x36;
+    static final int DSTORE = 0x39;
+    static final int ASTORE = 0x3a;
+    static final int ALOAD_0 = 0x2a;
+    static final int AALOAD = 0x32;
+    static final int DUP = 0x59;
+    static final int DUP2 = 0x5c;
+    static final int IADD = 0x60;
+    static final int DADD = 0x63;
+    static final int ISUB = 0x64;
+    static final int DSUB = 0x67;
+    static final int IMUL = 0x68;
+    static final int DMUL = 0x6b;
+    static final int IDIV = 0x6c;
+    static final int DDIV = 0x6f;
+    static final int IREM = 0x70;
+    static final int DREM = 0x73;
+    static final int INEG = 0x74;
+    static final int DNEG = 0x77;
+    static final int I2D = 0x87;
+    static final int IRETURN = 0xac;
+    static final int DRETURN = 0xaf;
+    static final int ARETURN = 0xb0;
+    static final int RETURN = 0xb1;
+
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC_W = 0x13;
+    private static final int LDC2_W = 0x14;
+    private static final int GETFIELD = 0xb4;
+    private static final int PUTFIELD = 0xb5;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int INVOKEINTERFACE = 0xb9;
+    private static final int CHECKCAST = 0xc0;
+    private static final int WIDE = 0xc4;
+
+    private final ClassWriter cw;
+    private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+    private int maxLocals;
+    private int stack = 0;
+    private int maxStack = 0;
+
+    CodeWriter(ClassWriter cw, int maxLocals) {
+        this.cw = cw;
+        this.maxLocals = maxLocals;
+    }
+
+    void op(int opcode, int stackDelta) {
+        code.write(opcode);
+        adjust(stackDelta);
+    }
+
+    void iload(int index) {
+        load(ILOAD, index, 1);
+    }
+
+    void aload(int index) {
+        load(ALOAD, index, 1);
+    }
+
+    void load(int opcode, int index, int size) {
+        local(opcode, index);
+        adjust(size);
+    }
+
+    void store(int opcode, int index, int size) {
+        local(opcode, index);
+        adjust(-size);
+    }
+
+    int newLocal(int size) {
+        int index = maxLocals;
+        maxLocals += size;
+        return index;
+    }
+
+    void pushInt(int value) {
+        if (-128 <= value && value <= 127) {
+            code.write(BIPUSH);
+            code.write(value);
+        } else if (-32768 <= value && value <= 32767) {
+            code.write(SIPUSH);
+            writeShort(value);
+        } else {
+            code.write(LDC_W);
+            writeShort(cw.intConst(value));
+        }
+        adjust(1);
+    }
+
+    void pushDouble(double value) {
+        code.write(LDC2_W);
+        writeShort(cw.doubleConst(value));
+        adjust(2);
+    }
+
+    void getField(String owner, String name, String descriptor, int size) {
+        code.write(GETFIELD);
+        writeShort(cw.fieldRef(owner, name, descriptor));
+        adjust(size - 1);
+    }
+
+    void putField(String owner, String name, String descriptor, int size) {
+        code.write(PUTFIELD);
+        writeShort(cw.fieldRef(owner, name, descriptor));
+        adjust(-size - 1);
+    }
+
+    void invokeStatic(String owner, String name, String descriptor, int stackDelta) {
+        code.write(INVOKESTATIC);
+        writeShort(cw.methodRef(owner, name, descriptor));
+        adjust(stackDelta);
+    }
+
+    void invokeVirtual(String owner, String name, String descriptor, int stackDelta) {
+        code.write(INVOKEVIRTUAL);
+        writeShort(cw.methodRef(owner, name, descriptor));
+        adjust(stackDelta);
+    }
+
+    void invokeSpecial(String owner, String name, String descriptor, int stackDelta) {
+        code.write(INVOKESPECIAL);
+        writeShort(cw.methodRef(owner, name, descriptor));
+        adjust(stackDelta);
+    }
+
+    void invokeInterface(String owner, String name, String descriptor, int argSlots, int stackDelta) {
+        code.write(INVOKEINTERFACE);
+        writeShort(cw.interfaceMethodRef(owner, name, descriptor));
+        code.write(argSlots + 1);
+        code.write(0);
+        adjust(stackDelta);
+    }
+
+    void checkCast(String internalName) {
+        code.write(CHECKCAST);
+        writeShort(cw.classRef(internalName));
+    }
+
+    int size() {
+        return code.size();
+    }
+
+    int getMaxStack() {
+        return maxStack;
+    }
+
+    int getMaxLocals() {
+        return maxLocals;
+    }
+
+    byte[] toByteArray() {
+        return code.toByteArray();
+    }
+
+    private void local(int opcode, int index) {
+        if (index > 0xFF) {
+            code.write(WIDE);
+            code.write(opcode);
+            writeShort(index);
+        } else {
+            code.write(opcode);
+            code.write(index);
+        }
+    }
+
+    private void writeShort(int value) {
+        code.write(value >>> 8);
+        code.write(value);
+    }
+
+    private void adjust(int delta) {
+        stack += delta;
+        maxStack = Math.max(maxStack, stack);
+    }
+}
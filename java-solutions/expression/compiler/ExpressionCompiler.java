@@ -0,0 +1,365 @@
+package expression.compiler;
+
+import expression.*;
+import expression.calculator.*;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ExpressionCompiler {
+    private static final int MAX_CODE_SIZE = 0xFFFF;
+
+    private static final String CLASS_NAME = "expression/compiler/CompiledExpression";
+    private static final String OBJECT = "java/lang/Object";
+    private static final String EXPRESSION = "expression/CommonExpression";
+    private static final String CALCULATOR = "expression/calculator/Calculator";
+    private static final String CALCULATOR_DESC = "L" + CALCULATOR + ";";
+    private static final String CONSTANTS_DESC = "[Ljava/lang/Object;";
+    private static final String BINARY_DESC = "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;";
+    private static final String UNARY_DESC = "(Ljava/lang/Object;)Ljava/lang/Object;";
+    private static final String INT_CALCULATOR = "expression/calculator/PrimitiveIntCalculator";
+    private static final String INT_CALCULATOR_DESC = "L" + INT_CALCULATOR + ";";
+    private static final String INTEGER_CALCULATOR = "expression/calculator/IntegerCalculator";
+    private static final String DOUBLE_CALCULATOR = "expression/calculator/DoubleCalculator";
+    private static final String STATUS_DESC = "Lexpression/exceptions/EvaluationStatus;";
+
+    private enum Mode {
+        GENERIC, CHECKED_INT, UNCHECKED_INT, CALCULATOR_INT, DOUBLE
+    }
+
+    public static <T> CommonExpression<T> compile(CommonExpression<T> expression, Calculator<T> calc) {
+        Mode mode = modeOf(calc);
+        if (mode != Mode.GENERIC && !isPrimitiveCompatible(expression)) {
+            mode = Mode.GENERIC;
+        }
+        List<Object> constants = new ArrayList<>();
+        ClassWriter cw = new ClassWriter(CLASS_NAME, OBJECT, EXPRESSION);
+        cw.addField(0x0012, "calc", CALCULATOR_DESC);
+        cw.addField(0x0012, "constants", CONSTANTS_DESC);
+        boolean intMode = mode == Mode.CHECKED_INT || mode == Mode.UNCHECKED_INT || mode == Mode.CALCULATOR_INT;
+        if (intMode) {
+            cw.addField(0x0012, "intCalc", INT_CALCULATOR_DESC);
+        }
+
+        CodeWriter init = new CodeWriter(cw, 3);
+        init.op(CodeWriter.ALOAD_0, 1);
+        init.invokeSpecial(OBJECT, "<init>", "()V", -1);
+        init.op(CodeWriter.ALOAD_0, 1);
+        init.aload(1);
+        init.putField(CLASS_NAME, "calc", CALCULATOR_DESC, 1);
+        init.op(CodeWriter.ALOAD_0, 1);
+        init.aload(2);
+        init.putField(CLASS_NAME, "constants", CONSTANTS_DESC, 1);
+        if (intMode) {
+            init.op(CodeWriter.ALOAD_0, 1);
+            init.aload(1);
+            init.checkCast(INT_CALCULATOR);
+            init.putField(CLASS_NAME, "intCalc", INT_CALCULATOR_DESC, 1);
+        }
+        init.op(CodeWriter.RETURN, 0);
+        cw.addMethod(0x0001, "<init>", "(" + CALCULATOR_DESC + CONSTANTS_DESC + ")V", init);
+
+        CodeWriter code = new CodeWriter(cw, 4);
+        CodeWriter primitive = new CodeWriter(cw, 4);
+        CodeWriter status = new CodeWriter(cw, 5);
+        switch (mode) {
+            case CHECKED_INT:
+            case UNCHECKED_INT:
+            case CALCULATOR_INT:
+                emitInt(primitive, expression, mode, false, new SharedValues(
+                        expression, CodeWriter.ILOAD, CodeWriter.ISTORE, CodeWriter.DUP, 1
+                ));
+                primitive.op(CodeWriter.IRETURN, -1);
+                emitInt(status, expression, mode, true, new SharedValues(
+                        expression, CodeWriter.ILOAD, CodeWriter.ISTORE, CodeWriter.DUP, 1
+                ));
+                status.op(CodeWriter.IRETURN, -1);
+                if (mode == Mode.CALCULATOR_INT) {
+                    loadCalc(code);
+                }
+                invokeSelf(code, "evaluateInt", "(III)I", 0);
+                if (mode == Mode.CALCULATOR_INT) {
+                    code.invokeInterface(CALCULATOR, "valueOf", "(I)Ljava/lang/Object;", 1, -1);
+                } else {
+                    code.invokeStatic("java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", 0);
+                }
+                break;
+            case DOUBLE:
+                emitDouble(primitive, expression, new SharedValues(
+                        expression, CodeWriter.DLOAD, CodeWriter.DSTORE, CodeWriter.DUP2, 2
+                ));
+                primitive.op(CodeWriter.DRETURN, -2);
+                invokeSelf(code, "evaluateDouble", "(III)D", 1);
+                code.invokeStatic("java/lang/Double", "valueOf", "(D)Ljava/lang/Double;", -1);
+                break;
+            default:
+                emitGeneric(code, expression, constants, new SharedValues(
+                        expression, CodeWriter.ALOAD, CodeWriter.ASTORE, CodeWriter.DUP, 1
+                ));
+        }
+        code.op(CodeWriter.ARETURN, -1);
+        if (code.size() > MAX_CODE_SIZE || primitive.size() > MAX_CODE_SIZE || status.size() > MAX_CODE_SIZE) {
+            return expression;
+        }
+        cw.addMethod(0x0001, "evaluate", "(III)Ljava/lang/Object;", code);
+        if (mode == Mode.DOUBLE) {
+            cw.addMethod(0x0001, "evaluateDouble", "(III)D", primitive);
+        } else if (intMode) {
+            cw.addMethod(0x0001, "evaluateInt", "(III)I", primitive);
+            cw.addMethod(0x0001, "evaluateInt", "(III" + STATUS_DESC + ")I", status);
+        }
+
+        try {
+            Class<?> compiled = MethodHandles.lookup()
+                    .defineHiddenClass(cw.toByteArray(), true)
+                    .lookupClass();
+            @SuppressWarnings("unchecked")
+            CommonExpression<T> result = (CommonExpression<T>) compiled
+                    .getConstructor(Calculator.class, Object[].class)
+                    .newInstance(calc, constants.toArray());
+            return result;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot define compiled expression: " + e.getMessage(), e);
+        }
+    }
+
+    private static Mode modeOf(Calculator<?> calc) {
+        if (calc.getClass() == IntegerCalculator.class) {
+            return Mode.CHECKED_INT;
+        } else if (calc.getClass() == UncheckedIntegerCalculator.class) {
+            return Mode.UNCHECKED_INT;
+        } else if (calc.getClass() == DoubleCalculator.class) {
+            return Mode.DOUBLE;
+        } else if (calc instanceof PrimitiveIntCalculator) {
+            return Mode.CALCULATOR_INT;
+        }
+        return Mode.GENERIC;
+    }
+
+    private static boolean isPrimitiveCompatible(CommonExpression<?> expr) {
+        if (expr instanceof BinaryOperation) {
+            BinaryOperation<?> op = (BinaryOperation<?>) expr;
+            return isPrimitiveCompatible(op.getFirst()) && isPrimitiveCompatible(op.getSecond());
+        } else if (expr instanceof UnaryOperation) {
+            return isPrimitiveCompatible(((UnaryOperation<?>) expr).getArg());
+        } else if (expr instanceof Variable) {
+            return isCompilable((Variable<?>) expr);
+        }
+        return expr instanceof Const && ((Const<?>) expr).getValue() != null;
+    }
+
+    private static boolean isCompilable(Variable<?> variable) {
+        return 0 <= variable.getSlot() && variable.getSlot() < 3;
+    }
+
+    private static void emitVariable(CodeWriter code, Variable<?> variable) {
+        code.iload(1 + variable.getSlot());
+    }
+
+    private static void emitInt(CodeWriter code, CommonExpression<?> expr, Mode mode, boolean status, SharedValues shared) {
+        if (shared.load(code, expr)) {
+            return;
+        } else if (expr instanceof Const) {
+            code.pushInt(((Number) ((Const<?>) expr).getValue()).intValue());
+        } else if (expr instanceof Variable) {
+            if (mode == Mode.CALCULATOR_INT) {
+                loadIntCalc(code);
+                emitVariable(code, (Variable<?>) expr);
+                code.invokeInterface(INT_CALCULATOR, "fromInt", "(I)I", 1, -1);
+            } else {
+                emitVariable(code, (Variable<?>) expr);
+            }
+        } else if (expr instanceof BinaryOperation) {
+            BinaryOperation<?> op = (BinaryOperation<?>) expr;
+            boolean viaCalc = mode == Mode.CALCULATOR_INT
+                    || status && (op instanceof Mod || op instanceof Divide && mode == Mode.UNCHECKED_INT);
+            if (viaCalc) {
+                loadIntCalc(code);
+            }
+            emitInt(code, op.getFirst(), mode, status, shared);
+            emitInt(code, op.getSecond(), mode, status, shared);
+            if (viaCalc && status) {
+                code.aload(4);
+                code.invokeInterface(INT_CALCULATOR, methodName(op), "(II" + STATUS_DESC + ")I", 3, -3);
+            } else if (viaCalc) {
+                code.invokeInterface(INT_CALCULATOR, methodName(op), "(II)I", 2, -2);
+            } else if (op instanceof Mod) {
+                code.op(CodeWriter.IREM, -1);
+            } else if (mode == Mode.CHECKED_INT && status) {
+                code.aload(4);
+                code.invokeStatic(INTEGER_CALCULATOR, "checked" + operationName(op), "(II" + STATUS_DESC + ")I", -2);
+            } else if (mode == Mode.CHECKED_INT) {
+                code.invokeStatic(INTEGER_CALCULATOR, "checked" + operationName(op), "(II)I", -1);
+            } else if (op instanceof Add) {
+                code.op(CodeWriter.IADD, -1);
+            } else if (op instanceof Subtract) {
+                code.op(CodeWriter.ISUB, -1);
+            } else if (op instanceof Multiply) {
+                code.op(CodeWriter.IMUL, -1);
+            } else if (op instanceof Divide) {
+                code.op(CodeWriter.IDIV, -1);
+            } else {
+                throw unsupported(op);
+            }
+        } else if (expr instanceof UnaryOperation) {
+            UnaryOperation<?> op = (UnaryOperation<?>) expr;
+            if (mode == Mode.CALCULATOR_INT) {
+                loadIntCalc(code);
+            }
+            emitInt(code, op.getArg(), mode, status, shared);
+            if (mode == Mode.CALCULATOR_INT && status) {
+                code.aload(4);
+                code.invokeInterface(INT_CALCULATOR, methodName(op), "(I" + STATUS_DESC + ")I", 2, -2);
+            } else if (mode == Mode.CALCULATOR_INT) {
+                code.invokeInterface(INT_CALCULATOR, methodName(op), "(I)I", 1, -1);
+            } else if (mode == Mode.CHECKED_INT && status) {
+                code.aload(4);
+                code.invokeStatic(INTEGER_CALCULATOR, "checked" + operationName(op), "(I" + STATUS_DESC + ")I", -1);
+            } else if (mode == Mode.CHECKED_INT) {
+                code.invokeStatic(INTEGER_CALCULATOR, "checked" + operationName(op), "(I)I", 0);
+            } else if (op instanceof Negate) {
+                code.op(CodeWriter.INEG, 0);
+            } else if (op instanceof Abs) {
+                code.invokeStatic("java/lang/Math", "abs", "(I)I", 0);
+            } else if (op instanceof Square) {
+                code.op(CodeWriter.DUP, 1);
+                code.op(CodeWriter.IMUL, -1);
+            } else {
+                throw unsupported(op);
+            }
+        } else {
+            throw unsupported(expr);
+        }
+        shared.store(code, expr);
+    }
+
+    private static void emitDouble(CodeWriter code, CommonExpression<?> expr, SharedValues shared) {
+        if (shared.load(code, expr)) {
+            return;
+        } else if (expr instanceof Const) {
+            code.pushDouble((Double) ((Const<?>) expr).getValue());
+        } else if (expr instanceof Variable) {
+            emitVariable(code, (Variable<?>) expr);
+            code.op(CodeWriter.I2D, 1);
+        } else if (expr instanceof BinaryOperation) {
+            BinaryOperation<?> op = (BinaryOperation<?>) expr;
+            emitDouble(code, op.getFirst(), shared);
+            emitDouble(code, op.getSecond(), shared);
+            if (op instanceof Add) {
+                code.op(CodeWriter.DADD, -2);
+            } else if (op instanceof Subtract) {
+                code.op(CodeWriter.DSUB, -2);
+            } else if (op instanceof Multiply) {
+                code.op(CodeWriter.DMUL, -2);
+            } else if (op instanceof Divide) {
+                code.op(CodeWriter.DDIV, -2);
+            } else if (op instanceof Mod) {
+                code.op(CodeWriter.DREM, -2);
+            } else {
+                throw unsupported(op);
+            }
+        } else if (expr instanceof UnaryOperation) {
+            UnaryOperation<?> op = (UnaryOperation<?>) expr;
+            emitDouble(code, op.getArg(), shared);
+            if (op instanceof Negate) {
+                code.op(CodeWriter.DNEG, 0);
+            } else if (op instanceof Abs) {
+                code.invokeStatic(DOUBLE_CALCULATOR, "absValue", "(D)D", 0);
+            } else if (op instanceof Square) {
+                code.op(CodeWriter.DUP2, 2);
+                code.op(CodeWriter.DMUL, -2);
+            } else {
+                throw unsupported(op);
+            }
+        } else {
+            throw unsupported(expr);
+        }
+        shared.store(code, expr);
+    }
+
+    private static void emitGeneric(
+            CodeWriter code, CommonExpression<?> expr, List<Object> constants, SharedValues shared
+    ) {
+        if (shared.load(code, expr)) {
+            return;
+        } else if (expr instanceof Const) {
+            code.op(CodeWriter.ALOAD_0, 1);
+            code.getField(CLASS_NAME, "constants", CONSTANTS_DESC, 1);
+            code.pushInt(constants.size());
+            code.op(CodeWriter.AALOAD, -1);
+            constants.add(((Const<?>) expr).getValue());
+        } else if (expr instanceof Variable) {
+            Variable<?> variable = (Variable<?>) expr;
+            if (isCompilable(variable)) {
+                loadCalc(code);
+                emitVariable(code, variable);
+                code.invokeInterface(CALCULATOR, "valueOf", "(I)Ljava/lang/Object;", 1, -1);
+            } else {
+                code.op(CodeWriter.ACONST_NULL, 1);
+            }
+        } else if (expr instanceof BinaryOperation) {
+            BinaryOperation<?> op = (BinaryOperation<?>) expr;
+            loadCalc(code);
+            emitGeneric(code, op.getFirst(), constants, shared);
+            emitGeneric(code, op.getSecond(), constants, shared);
+            code.invokeInterface(CALCULATOR, methodName(op), BINARY_DESC, 2, -2);
+        } else if (expr instanceof UnaryOperation) {
+            UnaryOperation<?> op = (UnaryOperation<?>) expr;
+            loadCalc(code);
+            emitGeneric(code, op.getArg(), constants, shared);
+            code.invokeInterface(CALCULATOR, methodName(op), UNARY_DESC, 1, -1);
+        } else {
+            throw unsupported(expr);
+        }
+        shared.store(code, expr);
+    }
+
+    private static void loadCalc(CodeWriter code) {
+        code.op(CodeWriter.ALOAD_0, 1);
+        code.getField(CLASS_NAME, "calc", CALCULATOR_DESC, 1);
+    }
+
+    private static void loadIntCalc(CodeWriter code) {
+        code.op(CodeWriter.ALOAD_0, 1);
+        code.getField(CLASS_NAME, "intCalc", INT_CALCULATOR_DESC, 1);
+    }
+
+    private static void invokeSelf(CodeWriter code, String name, String descriptor, int stackDelta) {
+        code.op(CodeWriter.ALOAD_0, 1);
+        code.iload(1);
+        code.iload(2);
+        code.iload(3);
+        code.invokeVirtual(CLASS_NAME, name, descriptor, stackDelta - 3);
+    }
+
+    private static String operationName(CommonExpression<?> op) {
+        String name = methodName(op);
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static String methodName(CommonExpression<?> op) {
+        if (op instanceof Add) {
+            return "add";
+        } else if (op instanceof Subtract) {
+            return "subtract";
+        } else if (op instanceof Multiply) {
+            return "multiply";
+        } else if (op instanceof Divide) {
+            return "divide";
+        } else if (op instanceof Mod) {
+            return "mod";
+        } else if (op instanceof Negate) {
+            return "negate";
+        } else if (op instanceof Abs) {
+            return "abs";
+        } else if (op instanceof Square) {
+            return "square";
+        }
+        throw unsupported(op);
+    }
+
+    private static IllegalArgumentException unsupported(CommonExpression<?> expr) {
+        return new IllegalArgumentException("Cannot compile expression node: " + expr.getClass().getName());
+    }
+}
@@ -0,0 +1,55 @@
+package expression.compiler;
+
+import expression.BinaryOperation;
+import expression.CommonExpression;
+import expression.UnaryOperation;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+class SharedValues {
+    private final Map<CommonExpression<?>, Integer> uses = new IdentityHashMap<>();
+    private final Map<CommonExpression<?>, Integer> locals = new IdentityHashMap<>();
+    private final int loadOpcode;
+    private final int storeOpcode;
+    private final int dupOpcode;
+    private final int size;
+
+    SharedValues(CommonExpression<?> root, int loadOpcode, int storeOpcode, int dupOpcode, int size) {
+        this.loadOpcode = loadOpcode;
+        this.storeOpcode = storeOpcode;
+        this.dupOpcode = dupOpcode;
+        this.size = size;
+        count(root);
+    }
+
+    boolean load(CodeWriter code, CommonExpression<?> expr) {
+        Integer local = locals.get(expr);
+        if (local == null) {
+            return false;
+        }
+        code.load(loadOpcode, local, size);
+        return true;
+    }
+
+    void store(CodeWriter code, CommonExpression<?> expr) {
+        if (uses.get(expr) > 1 && (expr instanceof BinaryOperation || expr instanceof UnaryOperation)) {
+            int local = code.newLocal(size);
+            code.op(dupOpcode, size);
+            code.store(storeOpcode, local, size);
+            locals.put(expr, local);
+        }
+    }
+
+    private void count(CommonExpression<?> expr) {
+        if (uses.merge(expr, 1, Integer::sum) > 1) {
+            return;
+        }
+        if (expr instanceof BinaryOperation) {
+            count(((BinaryOperation<?>) expr).getFirst());
+            count(((BinaryOperation<?>) expr).getSecond());
+        } else if (expr instanceof UnaryOperation) {
+            count(((UnaryOperation<?>) expr).getArg());
+        }
+    }
+}
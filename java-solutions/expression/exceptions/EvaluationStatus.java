@@ -0,0 +1,51 @@
+package expression.exceptions;
+
+public class EvaluationStatus {
+    public static final int OK = 0;
+    public static final int OVERFLOW = 1;
+    public static final int DIVISION_BY_ZERO = 2;
+    public static final int ARITHMETIC = 3;
+
+    private int code = OK;
+    private String format;
+    private long arg1, arg2;
+
+    public int fail(int code, String format, long arg1, long arg2) {
+        if (this.code == OK) {
+            this.code = code;
+            this.format = format;
+            this.arg1 = arg1;
+            this.arg2 = arg2;
+        }
+        return 0;
+    }
+
+    public void reset() {
+        code = OK;
+    }
+
+    public boolean isOk() {
+        return code == OK;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getMessage() {
+        return code == OK ? null : String.format(format, arg1, arg2);
+    }
+
+    public RuntimeException toException() {
+        switch (code) {
+            case OK:
+                return null;
+            case OVERFLOW:
+                return new OverflowException(getMessage());
+            case DIVISION_BY_ZERO:
+                return new DivisionByZeroException(getMessage());
+            default:
+                return new ArithmeticException(getMessage());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package expression.generic;
+
+import expression.CommonExpression;
+import expression.calculator.*;
+
+public class BatchTabulator extends GenericTabulator {
+    public BatchTabulator() {
+        this(1, DEFAULT_TILE_SIZE);
+    }
+
+    public BatchTabulator(int parallelism, int tileSize) {
+        super(false, parallelism, tileSize);
+    }
+
+    @Override
+    protected <T> Filler filler(Calculator<T> calc, CommonExpression<T> parsed) {
+        if (calc.getClass() == UncheckedIntegerCalculator.class) {
+            return super.filler(calc, parsed);
+        }
+        return batchFiller(calc, parsed);
+    }
+}
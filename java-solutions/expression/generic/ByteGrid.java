@@ -0,0 +1,24 @@
+package expression.generic;
+
+public class ByteGrid extends ResultGrid {
+    private final byte[] values;
+
+    ByteGrid(int x1, int x2, int y1, int y2, int z1, int z2) {
+        super(x1, x2, y1, y2, z1, z2);
+        this.values = new byte[size()];
+    }
+
+    public byte get(int x, int y, int z) {
+        return values[index(x, y, z)];
+    }
+
+    @Override
+    protected Object box(int index) {
+        return values[index];
+    }
+
+    @Override
+    protected void store(int index, Object value) {
+        values[index] = ((Number) value).byteValue();
+    }
+}
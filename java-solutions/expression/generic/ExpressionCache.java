@@ -0,0 +1,181 @@
+package expression.generic;
+
+import expression.exceptions.ParseException;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ExpressionCache<V> {
+    private final int capacity;
+    private final Map<Key, V> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final Map<Key, FutureTask<V>> loading = new HashMap<>();
+
+    public ExpressionCache(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Invalid cache capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, V> eldest) {
+                if (size() > ExpressionCache.this.capacity) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(String mode, String expression, Loader<V> loader) throws ParseException {
+        return get(mode, null, expression, loader);
+    }
+
+    public V get(String mode, List<String> variables, String expression, Loader<V> loader) throws ParseException {
+        if (capacity == 0) {
+            misses.incrementAndGet();
+            return loader.load(mode, expression);
+        }
+        Key key = new Key(mode, variables == null ? null : List.copyOf(variables), normalize(expression));
+        FutureTask<V> task;
+        boolean owner = false;
+        synchronized (entries) {
+            V value = entries.get(key);
+            if (value != null) {
+                hits.incrementAndGet();
+                return value;
+            }
+            task = loading.get(key);
+            if (task == null) {
+                task = new FutureTask<>(() -> loader.load(mode, expression));
+                loading.put(key, task);
+                owner = true;
+            }
+        }
+        if (owner) {
+            misses.incrementAndGet();
+            task.run();
+        } else {
+            coalesced.incrementAndGet();
+        }
+        try {
+            V value = task.get();
+            if (owner) {
+                synchronized (entries) {
+                    entries.putIfAbsent(key, value);
+                }
+            }
+            return value;
+        } catch (ExecutionException e) {
+            if (!owner) {
+                return loader.load(mode, expression);
+            }
+            if (e.getCause() instanceof ParseException) {
+                throw (ParseException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw (Error) e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + expression, e);
+        } finally {
+            if (owner) {
+                synchronized (entries) {
+                    loading.remove(key);
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    public static String normalize(String expression) {
+        StringBuilder sb = new StringBuilder(expression.length());
+        boolean space = false;
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (c == ' ' || c == '\r' || c == '\n' || c == '\t') {
+                space = true;
+            } else {
+                if (space && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                space = false;
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    public interface Loader<V> {
+        V load(String mode, String expression) throws ParseException;
+    }
+
+    private static class Key {
+        private final String mode;
+        private final List<String> variables;
+        private final String expression;
+
+        private Key(String mode, List<String> variables, String expression) {
+            this.mode = mode;
+            this.variables = variables;
+            this.expression = expression;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return mode.equals(other.mode) && Objects.equals(variables, other.variables)
+                    && expression.equals(other.expression);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(mode, variables, expression);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package expression.generic;
+
+public interface FrameSink {
+    void accept(int[] frame, Object value) throws Exception;
+}
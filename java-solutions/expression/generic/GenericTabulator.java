@@ -1,11 +1,65 @@
 package expression.generic;
 
 import expression.calculator.*;
+import expression.compiler.ExpressionCompiler;
+import expression.metrics.InstrumentedExpression;
+import expression.metrics.Metrics;
+import expression.metrics.TabulationProbe;
+import expression.optimizer.ExpressionOptimizer;
 import expression.parser.*;
 import expression.exceptions.*;
 import expression.*;
 
-public class GenericTabulator implements Tabulator {
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class GenericTabulator implements Tabulator, AutoCloseable {
+    public static final int DEFAULT_TILE_SIZE = 64;
+    public static final int DEFAULT_CACHE_SIZE = 256;
+    private static final int MAX_SEGMENT_LENGTH = 4096;
+    private static final int MIN_RANGE_CELLS = 1024;
+    private static final int WINDOW_CELLS_PER_ROW = 256;
+    private static final UncheckedIntegerCalculator UNCHECKED = new UncheckedIntegerCalculator();
+
+    private final boolean compile;
+    private final int tileSize;
+    private final int windowCells;
+    private final ForkJoinPool pool;
+    private final ExpressionCache<Prepared<?>> cache;
+    private final ResultStore store;
+
+    public GenericTabulator() {
+        this(false);
+    }
+
+    public GenericTabulator(boolean compile) {
+        this(compile, 1, DEFAULT_TILE_SIZE);
+    }
+
+    public GenericTabulator(boolean compile, int parallelism, int tileSize) {
+        this(compile, parallelism, tileSize, DEFAULT_CACHE_SIZE);
+    }
+
+    public GenericTabulator(boolean compile, int parallelism, int tileSize, int cacheSize) {
+        this(compile, parallelism, tileSize, cacheSize, null);
+    }
+
+    public GenericTabulator(boolean compile, int parallelism, int tileSize, int cacheSize, ResultStore store) {
+        if (parallelism < 1 || tileSize < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid arguments: parallelism and tile size must be positive\nFound: %d, %d", parallelism, tileSize
+            ));
+        }
+        this.compile = compile;
+        this.tileSize = tileSize;
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        this.windowCells = (int) Math.min(Integer.MAX_VALUE, (long) parallelism * tileSize * WINDOW_CELLS_PER_ROW);
+        this.cache = new ExpressionCache<>(cacheSize);
+        this.store = store;
+    }
+
     public static void main(String[] args) {
         try {
             if (args.length != 2) {
@@ -34,31 +88,681 @@ public class GenericTabulator implements Tabulator {
             String mode, String expression,
             int x1, int x2, int y1, int y2, int z1, int z2
     ) throws Exception {
-        if (!ModesList.CALCULATORS.containsKey(mode)) {
+        checkMode(mode);
+        Object[][][] res = new Object[x2 - x1 + 1][y2 - y1 + 1][z2 - z1 + 1];
+        tabulate(mode, expression, x1, x2, y1, y2, z1, z2, new ArrayTarget(res, x1, y1, z1));
+        return res;
+    }
+
+    public ResultGrid tabulateGrid(
+            String mode, String expression,
+            int x1, int x2, int y1, int y2, int z1, int z2
+    ) throws Exception {
+        checkMode(mode);
+        ResultGrid grid = ResultGrid.of(ModesList.get(mode), x1, x2, y1, y2, z1, z2);
+        tabulate(mode, expression, x1, x2, y1, y2, z1, z2, new GridTarget(grid));
+        return grid;
+    }
+
+    public void tabulate(
+            String mode, String expression,
+            int x1, int x2, int y1, int y2, int z1, int z2,
+            ResultSink sink
+    ) throws Exception {
+        checkMode(mode);
+        tabulate(mode, expression, x1, x2, y1, y2, z1, z2, sink, null);
+    }
+
+    private void tabulate(
+            String mode, String expression,
+            int x1, int x2, int y1, int y2, int z1, int z2,
+            Target target
+    ) throws Exception {
+        tabulate(mode, expression, x1, x2, y1, y2, z1, z2, target, target);
+    }
+
+    private void tabulate(
+            String mode, String expression,
+            int x1, int x2, int y1, int y2, int z1, int z2,
+            ResultSink sink, Target target
+    ) throws Exception {
+        if (Metrics.isEnabled()) {
+            TabulationProbe probe = Metrics.beginTabulation(mode, expression);
+            try {
+                Prepared<?> prepared = cache.get(mode, expression, (m, e) -> prepare(ModesList.get(m), e, probe));
+                tabulate(mode, expression, instrumented(prepared, probe), x1, x2, y1, y2, z1, z2, sink, target);
+            } finally {
+                probe.end();
+            }
+            return;
+        }
+        Prepared<?> prepared = cache.get(mode, expression, (m, e) -> prepare(ModesList.get(m), e, null));
+        tabulate(mode, expression, prepared.filler, x1, x2, y1, y2, z1, z2, sink, target);
+    }
+
+    private void tabulate(
+            String mode, String expression, Filler filler,
+            int x1, int x2, int y1, int y2, int z1, int z2,
+            ResultSink sink, Target target
+    ) throws Exception {
+        ResultStore.Table table = store == null ? null : store.table(mode, expression);
+        if (table != null) {
+            table.tabulate(
+                    x1, x2, y1, y2, z1, z2,
+                    (a1, a2, b1, b2, c1, c2, tile) -> tabulate(filler, a1, a2, b1, b2, c1, c2, tile, null),
+                    sink
+            );
+        } else {
+            tabulate(filler, x1, x2, y1, y2, z1, z2, sink, target);
+        }
+    }
+
+    private void tabulate(
+            Filler filler, int x1, int x2, int y1, int y2, int z1, int z2, ResultSink sink, Target target
+    ) throws Exception {
+        int width = x2 - x1 + 1;
+        int height = y2 - y1 + 1;
+        int depth = z2 - z1 + 1;
+        if (width <= 0 || height <= 0 || depth <= 0) {
+            return;
+        }
+        int length = Math.min(depth, MAX_SEGMENT_LENGTH);
+        int parts = (depth - 1) / length + 1;
+        long segments = (long) width * height * parts;
+        boolean direct = parts == 1 && target != null && target.row(x1, y1) != null;
+        Window window = new Window((int) Math.min(segments, Math.max(1, windowCells / length)), length, !direct);
+        for (long first = 0; first < segments; first += window.size) {
+            int count = (int) Math.min(window.size, segments - first);
+            for (int s = 0; s < count; s++) {
+                long row = (first + s) / parts;
+                int part = (int) ((first + s) % parts);
+                window.xs[s] = x1 + (int) (row / height);
+                window.ys[s] = y1 + (int) (row % height);
+                window.zs[s] = z1 + part * length;
+                window.counts[s] = Math.min(length, depth - part * length);
+                if (direct) {
+                    window.lines[s] = target.row(window.xs[s], window.ys[s]);
+                }
+            }
+            TabulationTask task = new TabulationTask(filler, window, target, 0, count, tileSize);
+            if (pool == null) {
+                task.fill();
+            } else {
+                pool.invoke(task);
+            }
+            if (target == null) {
+                for (int s = 0; s < count; s++) {
+                    Object[] line = window.lines[s];
+                    for (int k = 0; k < window.counts[s]; k++) {
+                        sink.accept(window.xs[s], window.ys[s], window.zs[s] + k, line[k]);
+                    }
+                }
+            }
+        }
+    }
+
+    public Object[] tabulate(
+            String mode, String expression, List<String> variables, int[] from, int[] to
+    ) throws Exception {
+        checkMode(mode);
+        checkBox(variables, from, to);
+        long size = cells(from, to);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid arguments: too many points to tabulate");
+        }
+        Object[] res = new Object[(int) size];
+        fill(prepareFrame(mode, expression, variables), from, to, res, 0, res.length);
+        return res;
+    }
+
+    public void tabulate(
+            String mode, String expression, List<String> variables, int[] from, int[] to,
+            FrameSink sink
+    ) throws Exception {
+        checkMode(mode);
+        checkBox(variables, from, to);
+        Prepared<?> prepared = prepareFrame(mode, expression, variables);
+        long size = cells(from, to);
+        if (size == 0) {
+            return;
+        }
+        Object[] window = new Object[(int) Math.min(size, windowCells)];
+        int[] frame = from.clone();
+        for (long first = 0; first < size; first += window.length) {
+            int count = (int) Math.min(window.length, size - first);
+            fill(prepared, from, to, window, first, count);
+            for (int i = 0; i < count; i++) {
+                sink.accept(frame, window[i]);
+                next(frame, from, to);
+            }
+        }
+    }
+
+    private Prepared<?> prepareFrame(String mode, String expression, List<String> variables) throws ParseException {
+        return cache.get(mode, variables, expression, (m, e) -> prepareFrame(ModesList.get(m), e, variables));
+    }
+
+    private static <T> Prepared<T> prepareFrame(
+            Calculator<T> calc, String expression, List<String> variables
+    ) throws ParseException {
+        return new Prepared<>(calc, ExpressionOptimizer.optimize(ExpressionParser.parse(expression, calc, variables), calc), null);
+    }
+
+    private void fill(Prepared<?> prepared, int[] from, int[] to, Object[] out, long first, int count) {
+        FrameTask<?> task = new FrameTask<>(prepared, from, to, out, first, 0, count);
+        if (pool == null) {
+            task.fill();
+        } else {
+            pool.invoke(task);
+        }
+    }
+
+    private static long cells(int[] from, int[] to) {
+        long size = 1;
+        for (int i = 0; i < from.length; i++) {
+            size *= Math.max(0, (long) to[i] - from[i] + 1);
+            if (size > Long.MAX_VALUE >>> 32) {
+                throw new IllegalArgumentException("Invalid arguments: too many points to tabulate");
+            }
+        }
+        return size;
+    }
+
+    private static void next(int[] frame, int[] from, int[] to) {
+        int d = frame.length - 1;
+        while (d >= 0 && frame[d] == to[d]) {
+            frame[d] = from[d];
+            d--;
+        }
+        if (d >= 0) {
+            frame[d]++;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    public ExpressionCache<?> getCache() {
+        return cache;
+    }
+
+    public ResultStore getStore() {
+        return store;
+    }
+
+    private static void checkMode(String mode) {
+        if (ModesList.get(mode) == null) {
             throw new IllegalArgumentException(String.format(
                     "Illegal mode: %s\nValid modes:\n%s", mode, ModesList.VALID_MODES
             ));
         }
-        return tabulate(ModesList.CALCULATORS.get(mode), expression, x1, x2, y1, y2, z1, z2);
     }
 
-    private <T> Object[][][] tabulate(
-            Calculator<T> calc, String expression,
-            int x1, int x2, int y1, int y2, int z1, int z2
+    private static void checkBox(List<String> variables, int[] from, int[] to) {
+        if (from.length != variables.size() || to.length != variables.size()) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid arguments: expected bounds for %d variables\nFound: %d, %d",
+                    variables.size(), from.length, to.length
+            ));
+        }
+    }
+
+    private <T> Prepared<T> prepare(
+            Calculator<T> calc, String expression, TabulationProbe probe
     ) throws ParseException {
-        Object[][][] res = new Object[x2 - x1 + 1][y2 - y1 + 1][z2 - z1 + 1];
-        CommonExpression<T> expr = ExpressionParser.parse(expression, calc);
-        for (int i = 0; i <= x2 - x1; i++) {
-            for (int j = 0; j <= y2 - y1; j++) {
-                for (int k = 0; k <= z2 - z1; k++) {
-                    try {
-                        res[i][j][k] = expr.evaluate(x1 + i, y1 + j, z1 + k);
-                    } catch (Exception e) {
-                        res[i][j][k] = null;
-                    }
+        long start = System.nanoTime();
+        CommonExpression<T> parsed = ExpressionOptimizer.optimize(ExpressionParser.parse(expression, calc), calc);
+        if (probe != null) {
+            probe.parsed(System.nanoTime() - start);
+        }
+        return new Prepared<>(calc, parsed, prepare(calc, parsed));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Filler prepare(Calculator<T> calc, CommonExpression<T> parsed) {
+        boolean deep = PostOrder.depth(parsed) > CseExpression.MAX_RECURSIVE_DEPTH;
+        Filler filler = deep ? HoistedExpression.of(parsed, calc)::fill : filler(calc, parsed);
+        if (calc.getClass() == IntegerCalculator.class) {
+            IntervalAnalysis analysis = IntervalAnalysis.of(parsed);
+            if (analysis != null) {
+                Calculator<T> unchecked = (Calculator<T>) UNCHECKED;
+                Filler fast = deep ? HoistedExpression.of(parsed, unchecked)::fill : filler(unchecked, parsed);
+                return new RangeFiller(analysis, filler, fast);
+            }
+        }
+        return filler;
+    }
+
+    protected <T> Filler filler(Calculator<T> calc, CommonExpression<T> parsed) {
+        if (!compile || calc instanceof PrimitiveLongCalculator) {
+            return HoistedExpression.of(parsed, calc)::fill;
+        }
+        CommonExpression<T> expr = ExpressionCompiler.compile(parsed, calc);
+        boolean invariant = !new VariableDependencies<T>().of(parsed).contains("z");
+        return (line, count, x, y, z) -> {
+            EvaluationStatus status = new EvaluationStatus();
+            int evaluated = invariant ? Math.min(count, 1) : count;
+            for (int k = 0; k < evaluated; k++) {
+                try {
+                    line[k] = evaluate(calc, expr, status, x, y, z + k);
+                } catch (Exception e) {
+                    line[k] = null;
                 }
             }
+            if (invariant && count > 1) {
+                Arrays.fill(line, 1, count, line[0]);
+            }
+        };
+    }
+
+    private static <T> Object evaluate(
+            Calculator<T> calc, CommonExpression<T> expr, EvaluationStatus status, int x, int y, int z
+    ) {
+        if (calc instanceof PrimitiveIntCalculator) {
+            status.reset();
+            int value = expr.evaluateInt(x, y, z, status);
+            return status.isOk() ? calc.valueOf(value) : null;
+        } else if (calc instanceof PrimitiveDoubleCalculator) {
+            return expr.evaluateDouble(x, y, z);
+        }
+        return calc.output(expr.evaluate(x, y, z));
+    }
+
+    private static <T> Filler instrumented(Prepared<T> prepared, TabulationProbe probe) {
+        Calculator<T> calc = prepared.calc;
+        CommonExpression<T> parsed = prepared.parsed;
+        CommonExpression<T> expr = PostOrder.depth(parsed) > CseExpression.MAX_RECURSIVE_DEPTH
+                ? CseExpression.flatten(parsed)
+                : InstrumentedExpression.of(parsed, calc);
+        return (line, count, x, y, z) -> {
+            EvaluationStatus status = new EvaluationStatus();
+            for (int k = 0; k < count; k++) {
+                line[k] = evaluate(calc, expr, status, probe, x, y, z + k);
+            }
+        };
+    }
+
+    private static <T> Object evaluate(
+            Calculator<T> calc, CommonExpression<T> expr, EvaluationStatus status, TabulationProbe probe,
+            int x, int y, int z
+    ) {
+        long start = System.nanoTime();
+        try {
+            if (calc instanceof PrimitiveIntCalculator) {
+                status.reset();
+                int value = expr.evaluateInt(x, y, z, status);
+                long evaluated = System.nanoTime();
+                if (!status.isOk()) {
+                    probe.failed(evaluated - start, Metrics.exceptionName(status.getCode()));
+                    return null;
+                }
+                T result = calc.valueOf(value);
+                probe.evaluated(evaluated - start, System.nanoTime() - evaluated);
+                return result;
+            } else if (calc instanceof PrimitiveLongCalculator) {
+                status.reset();
+                long value = expr.evaluateLong(x, y, z, status);
+                T result = status.isOk() ? calc.valueOf(value) : calc.output(expr.evaluate(x, y, z));
+                probe.evaluated(System.nanoTime() - start, 0);
+                return result;
+            } else if (calc instanceof PrimitiveDoubleCalculator) {
+                double value = expr.evaluateDouble(x, y, z);
+                long evaluated = System.nanoTime();
+                Double result = value;
+                probe.evaluated(evaluated - start, System.nanoTime() - evaluated);
+                return result;
+            }
+            T result = calc.output(expr.evaluate(x, y, z));
+            probe.evaluated(System.nanoTime() - start, 0);
+            return result;
+        } catch (RuntimeException e) {
+            probe.failed(System.nanoTime() - start, e.getClass().getSimpleName());
+            return null;
+        }
+    }
+
+    private static <T> Object evaluate(Calculator<T> calc, CommonExpression<T> expr, EvaluationStatus status, int[] frame) {
+        if (calc instanceof PrimitiveIntCalculator) {
+            status.reset();
+            int value = expr.evaluateInt(frame, status);
+            return status.isOk() ? calc.valueOf(value) : null;
+        } else if (calc instanceof PrimitiveLongCalculator) {
+            status.reset();
+            long value = expr.evaluateLong(frame, status);
+            return status.isOk() ? calc.valueOf(value) : calc.output(expr.evaluate(frame));
+        } else if (calc instanceof PrimitiveDoubleCalculator) {
+            return expr.evaluateDouble(frame);
+        }
+        return calc.output(expr.evaluate(frame));
+    }
+
+    protected <T> Filler batchFiller(Calculator<T> calc, CommonExpression<T> parsed) {
+        return new BatchFiller<>(calc, parsed);
+    }
+
+    protected interface Filler {
+        void fill(Object[] line, int count, int x, int y, int z);
+    }
+
+    private static class Prepared<T> {
+        private final Calculator<T> calc;
+        private final CommonExpression<T> parsed;
+        private final Filler filler;
+
+        private Prepared(Calculator<T> calc, CommonExpression<T> parsed, Filler filler) {
+            this.calc = calc;
+            this.parsed = parsed;
+            this.filler = filler;
+        }
+    }
+
+    private static class FrameTask<T> extends RecursiveAction {
+        private final Prepared<T> prepared;
+        private final int[] from, to;
+        private final Object[] out;
+        private final long first;
+        private final int lo, hi;
+
+        private FrameTask(Prepared<T> prepared, int[] from, int[] to, Object[] out, long first, int lo, int hi) {
+            this.prepared = prepared;
+            this.from = from;
+            this.to = to;
+            this.out = out;
+            this.first = first;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= MAX_SEGMENT_LENGTH) {
+                fill();
+            } else {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(
+                        new FrameTask<>(prepared, from, to, out, first, lo, mid),
+                        new FrameTask<>(prepared, from, to, out, first, mid, hi)
+                );
+            }
+        }
+
+        private void fill() {
+            int[] frame = new int[from.length];
+            long index = first + lo;
+            for (int d = frame.length - 1; d >= 0; d--) {
+                long size = (long) to[d] - from[d] + 1;
+                frame[d] = (int) (from[d] + index % size);
+                index /= size;
+            }
+            EvaluationStatus status = new EvaluationStatus();
+            for (int i = lo; i < hi; i++) {
+                try {
+                    out[i] = evaluate(prepared.calc, prepared.parsed, status, frame);
+                } catch (Exception e) {
+                    out[i] = null;
+                }
+                next(frame, from, to);
+            }
+        }
+    }
+
+    private abstract static class Target implements ResultSink {
+        abstract Object[] row(int x, int y);
+
+        abstract void store(Window window, int from, int to);
+    }
+
+    private static class ArrayTarget extends Target {
+        private final Object[][][] res;
+        private final int x1, y1, z1;
+
+        private ArrayTarget(Object[][][] res, int x1, int y1, int z1) {
+            this.res = res;
+            this.x1 = x1;
+            this.y1 = y1;
+            this.z1 = z1;
+        }
+
+        @Override
+        public void accept(int x, int y, int z, Object value) {
+            res[x - x1][y - y1][z - z1] = value;
+        }
+
+        @Override
+        Object[] row(int x, int y) {
+            return res[x - x1][y - y1];
+        }
+
+        @Override
+        void store(Window window, int from, int to) {
+            if (!window.buffered) {
+                return;
+            }
+            for (int s = from; s < to; s++) {
+                System.arraycopy(window.lines[s], 0, row(window.xs[s], window.ys[s]), window.zs[s] - z1, window.counts[s]);
+            }
+        }
+    }
+
+    private static class GridTarget extends Target {
+        private final ResultGrid grid;
+
+        private GridTarget(ResultGrid grid) {
+            this.grid = grid;
+        }
+
+        @Override
+        public void accept(int x, int y, int z, Object value) {
+            grid.set(x, y, z, value);
+        }
+
+        @Override
+        Object[] row(int x, int y) {
+            return null;
+        }
+
+        @Override
+        void store(Window window, int from, int to) {
+            for (int s = from; s < to; s++) {
+                grid.set(window.xs[s], window.ys[s], window.zs[s], window.lines[s], window.counts[s]);
+            }
+        }
+    }
+
+    private static class Window {
+        private final int size;
+        private final boolean buffered;
+        private final Object[][] lines;
+        private final int[] xs, ys, zs, counts;
+
+        private Window(int size, int length, boolean buffered) {
+            this.size = size;
+            this.buffered = buffered;
+            this.lines = buffered ? new Object[size][length] : new Object[size][];
+            this.xs = new int[size];
+            this.ys = new int[size];
+            this.zs = new int[size];
+            this.counts = new int[size];
+        }
+    }
+
+    private static class TabulationTask extends RecursiveAction {
+        private final Filler filler;
+        private final Window window;
+        private final Target target;
+        private final int from, to;
+        private final int tileSize;
+
+        private TabulationTask(Filler filler, Window window, Target target, int from, int to, int tileSize) {
+            this.filler = filler;
+            this.window = window;
+            this.target = target;
+            this.from = from;
+            this.to = to;
+            this.tileSize = tileSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= tileSize) {
+                fill();
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(
+                        new TabulationTask(filler, window, target, from, mid, tileSize),
+                        new TabulationTask(filler, window, target, mid, to, tileSize)
+                );
+            }
+        }
+
+        private void fill() {
+            fill(filler, window, from, to);
+            if (target != null) {
+                target.store(window, from, to);
+            }
+        }
+
+        private static void fill(Filler filler, Window window, int from, int to) {
+            if (filler instanceof TileFiller) {
+                ((TileFiller) filler).fill(window, from, to);
+                return;
+            }
+            for (int s = from; s < to; s++) {
+                filler.fill(window.lines[s], window.counts[s], window.xs[s], window.ys[s], window.zs[s]);
+            }
+        }
+    }
+
+    private abstract static class TileFiller implements Filler {
+        abstract void fill(Window window, int from, int to);
+    }
+
+    private static class RangeFiller extends TileFiller {
+        private final IntervalAnalysis analysis;
+        private final Filler checked;
+        private final Filler unchecked;
+
+        private RangeFiller(IntervalAnalysis analysis, Filler checked, Filler unchecked) {
+            this.analysis = analysis;
+            this.checked = checked;
+            this.unchecked = unchecked;
+        }
+
+        @Override
+        public void fill(Object[] line, int count, int x, int y, int z) {
+            Filler filler = analysis.isSafe(x, x, y, y, z, z + count - 1) ? unchecked : checked;
+            filler.fill(line, count, x, y, z);
+        }
+
+        @Override
+        void fill(Window window, int from, int to) {
+            int x1 = Integer.MAX_VALUE, x2 = Integer.MIN_VALUE;
+            int y1 = Integer.MAX_VALUE, y2 = Integer.MIN_VALUE;
+            int z1 = Integer.MAX_VALUE, z2 = Integer.MIN_VALUE;
+            long cells = 0;
+            for (int s = from; s < to; s++) {
+                x1 = Math.min(x1, window.xs[s]);
+                x2 = Math.max(x2, window.xs[s]);
+                y1 = Math.min(y1, window.ys[s]);
+                y2 = Math.max(y2, window.ys[s]);
+                z1 = Math.min(z1, window.zs[s]);
+                z2 = Math.max(z2, window.zs[s] + window.counts[s] - 1);
+                cells += window.counts[s];
+            }
+            if (analysis.isSafe(x1, x2, y1, y2, z1, z2)) {
+                TabulationTask.fill(unchecked, window, from, to);
+            } else if (to - from == 1 || cells < MIN_RANGE_CELLS) {
+                TabulationTask.fill(checked, window, from, to);
+            } else {
+                int mid = (from + to) >>> 1;
+                fill(window, from, mid);
+                fill(window, mid, to);
+            }
+        }
+    }
+
+    private static class BatchFiller<T> extends TileFiller {
+        private static final int BATCH_SIZE = 256;
+
+        private final Calculator<T> calc;
+        private final CommonExpression<T> expr;
+        private final ThreadLocal<Batch<T>> batches = ThreadLocal.withInitial(Batch::new);
+
+        private BatchFiller(Calculator<T> calc, CommonExpression<T> expr) {
+            this.calc = calc;
+            this.expr = expr;
+        }
+
+        @Override
+        public void fill(Object[] line, int count, int x, int y, int z) {
+            Batch<T> batch = batches.get();
+            for (int k = 0; k < count; k++) {
+                add(batch, line, k, x, y, z + k);
+            }
+            flush(batch);
+        }
+
+        @Override
+        void fill(Window window, int from, int to) {
+            Batch<T> batch = batches.get();
+            for (int s = from; s < to; s++) {
+                for (int k = 0; k < window.counts[s]; k++) {
+                    add(batch, window.lines[s], k, window.xs[s], window.ys[s], window.zs[s] + k);
+                }
+            }
+            flush(batch);
+        }
+
+        private void add(Batch<T> batch, Object[] line, int index, int x, int y, int z) {
+            int i = batch.size++;
+            batch.lines[i] = line;
+            batch.indices[i] = index;
+            batch.xs[i] = x;
+            batch.ys[i] = y;
+            batch.zs[i] = z;
+            if (batch.size == BATCH_SIZE) {
+                flush(batch);
+            }
+        }
+
+        private void flush(Batch<T> batch) {
+            int count = batch.size;
+            if (calc instanceof PrimitiveIntCalculator) {
+                expr.evaluateIntBatch(batch.xs, batch.ys, batch.zs, count, batch.ints);
+                int[] values = batch.ints.values();
+                for (int i = 0; i < count; i++) {
+                    batch.lines[i][batch.indices[i]] = batch.ints.isError(i) ? null : calc.valueOf(values[i]);
+                }
+            } else if (calc instanceof PrimitiveDoubleCalculator) {
+                expr.evaluateDoubleBatch(batch.xs, batch.ys, batch.zs, count, batch.doubles);
+                double[] values = batch.doubles.values();
+                for (int i = 0; i < count; i++) {
+                    batch.lines[i][batch.indices[i]] = batch.doubles.isError(i) ? null : (Object) values[i];
+                }
+            } else {
+                expr.evaluateBatch(batch.xs, batch.ys, batch.zs, count, batch.objects);
+                for (int i = 0; i < count; i++) {
+                    batch.lines[i][batch.indices[i]] = batch.objects.isError(i) ? null : calc.output(batch.objects.get(i));
+                }
+            }
+            Arrays.fill(batch.lines, 0, count, null);
+            batch.size = 0;
+        }
+
+        private static class Batch<T> {
+            private final Object[][] lines = new Object[BATCH_SIZE][];
+            private final int[] indices = new int[BATCH_SIZE];
+            private final int[] xs = new int[BATCH_SIZE];
+            private final int[] ys = new int[BATCH_SIZE];
+            private final int[] zs = new int[BATCH_SIZE];
+            private final IntColumn ints = new IntColumn(BATCH_SIZE);
+            private final DoubleColumn doubles = new DoubleColumn(BATCH_SIZE);
+            private final ObjectColumn<T> objects = new ObjectColumn<>(BATCH_SIZE);
+            private int size;
         }
-        return res;
     }
 }
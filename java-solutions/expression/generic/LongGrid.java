@@ -0,0 +1,24 @@
+package expression.generic;
+
+public class LongGrid extends ResultGrid {
+    private final long[] values;
+
+    LongGrid(int x1, int x2, int y1, int y2, int z1, int z2) {
+        super(x1, x2, y1, y2, z1, z2);
+        this.values = new long[size()];
+    }
+
+    public long get(int x, int y, int z) {
+        return values[index(x, y, z)];
+    }
+
+    @Override
+    protected Object box(int index) {
+        return values[index];
+    }
+
+    @Override
+    protected void store(int index, Object value) {
+        values[index] = ((Number) value).longValue();
+    }
+}
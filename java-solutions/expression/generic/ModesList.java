@@ -1,6 +1,7 @@
 package expression.generic;
 
 import expression.calculator.*;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class ModesList {
@@ -8,21 +9,66 @@ public class ModesList {
             Map.entry("i", new IntegerCalculator()),
             Map.entry("d", new DoubleCalculator()),
             Map.entry("bi", new BigIntegerCalculator()),
+            Map.entry("h", new HybridIntegerCalculator()),
             Map.entry("u", new UncheckedIntegerCalculator()),
             Map.entry("p", new ModIntegerCalculator()),
             Map.entry("b", new ByteCalculator())
     );
 
+    private static final Map<String, String> NOTES = Map.of(
+            "h", "Long, or BigInteger when the value does not fit in long"
+    );
+
+    public static final String MODULUS_PREFIX = "p:";
+    private static final int MAX_MODULI = 64;
+    private static final Map<String, Calculator<?>> MODULI = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Calculator<?>> eldest) {
+            return size() > MAX_MODULI;
+        }
+    };
+
     public static final String VALID_MODES;
 
     static {
         StringBuilder tmp = new StringBuilder();
         for (String mode : CALCULATORS.keySet()) {
-            tmp.append("\t").append(mode).append("\n");
-        }
-        if (!tmp.isEmpty()) {
-            tmp.deleteCharAt(tmp.length() - 1);
+            tmp.append("\t").append(mode);
+            if (NOTES.containsKey(mode)) {
+                tmp.append(" (").append(NOTES.get(mode)).append(")");
+            }
+            tmp.append("\n");
         }
+        tmp.append("\t").append(MODULUS_PREFIX).append("<prime>");
         VALID_MODES = tmp.toString();
     }
+
+    public static Calculator<?> get(String mode) {
+        Calculator<?> calc = CALCULATORS.get(mode);
+        if (calc != null || !mode.startsWith(MODULUS_PREFIX)) {
+            return calc;
+        }
+        synchronized (MODULI) {
+            calc = MODULI.get(mode);
+        }
+        if (calc == null) {
+            calc = modular(mode.substring(MODULUS_PREFIX.length()));
+            if (calc != null) {
+                synchronized (MODULI) {
+                    Calculator<?> old = MODULI.putIfAbsent(mode, calc);
+                    calc = old != null ? old : calc;
+                }
+            }
+        }
+        return calc;
+    }
+
+    private static Calculator<?> modular(String modulus) {
+        try {
+            long p = Long.parseLong(modulus);
+            return p <= Integer.MAX_VALUE ? new ModIntegerCalculator((int) p) : new ModLongCalculator(p);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
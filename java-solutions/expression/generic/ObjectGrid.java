@@ -0,0 +1,25 @@
+package expression.generic;
+
+public class ObjectGrid<T> extends ResultGrid {
+    private final Object[] values;
+
+    ObjectGrid(int x1, int x2, int y1, int y2, int z1, int z2) {
+        super(x1, x2, y1, y2, z1, z2);
+        this.values = new Object[size()];
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int x, int y, int z) {
+        return (T) values[index(x, y, z)];
+    }
+
+    @Override
+    protected Object box(int index) {
+        return values[index];
+    }
+
+    @Override
+    protected void store(int index, Object value) {
+        values[index] = value;
+    }
+}
@@ -0,0 +1,146 @@
+package expression.generic;
+
+import expression.calculator.*;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+public abstract class ResultGrid {
+    private static final VarHandle VALID = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int x1, y1, z1;
+    private final int width, height, depth;
+    private final long[] valid;
+
+    protected ResultGrid(int x1, int x2, int y1, int y2, int z1, int z2) {
+        this.x1 = x1;
+        this.y1 = y1;
+        this.z1 = z1;
+        long width = Math.max(0, (long) x2 - x1 + 1);
+        long height = Math.max(0, (long) y2 - y1 + 1);
+        long depth = Math.max(0, (long) z2 - z1 + 1);
+        if (width * height > Integer.MAX_VALUE || width * height * depth > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Invalid arguments: too many points to tabulate");
+        }
+        this.width = (int) width;
+        this.height = (int) height;
+        this.depth = (int) depth;
+        this.valid = new long[(int) ((width * height * depth + 63) >>> 6)];
+    }
+
+    static ResultGrid of(Calculator<?> calc, int x1, int x2, int y1, int y2, int z1, int z2) {
+        if (calc instanceof ByteCalculator) {
+            return new ByteGrid(x1, x2, y1, y2, z1, z2);
+        } else if (calc instanceof PrimitiveIntCalculator) {
+            return new IntGrid(x1, x2, y1, y2, z1, z2);
+        } else if (calc instanceof PrimitiveDoubleCalculator) {
+            return new DoubleGrid(x1, x2, y1, y2, z1, z2);
+        } else if (calc instanceof ModLongCalculator) {
+            return new LongGrid(x1, x2, y1, y2, z1, z2);
+        }
+        return new ObjectGrid<>(x1, x2, y1, y2, z1, z2);
+    }
+
+    public int getX1() {
+        return x1;
+    }
+
+    public int getY1() {
+        return y1;
+    }
+
+    public int getZ1() {
+        return z1;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int size() {
+        return width * height * depth;
+    }
+
+    public boolean isValid(int x, int y, int z) {
+        int index = index(x, y, z);
+        return (valid[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public Object getValue(int x, int y, int z) {
+        int index = index(x, y, z);
+        return (valid[index >>> 6] & (1L << index)) != 0 ? box(index) : null;
+    }
+
+    public Object[][][] toArray() {
+        Object[][][] res = new Object[width][height][depth];
+        int index = 0;
+        for (int i = 0; i < width; i++) {
+            for (int j = 0; j < height; j++) {
+                for (int k = 0; k < depth; k++, index++) {
+                    res[i][j][k] = (valid[index >>> 6] & (1L << index)) != 0 ? box(index) : null;
+                }
+            }
+        }
+        return res;
+    }
+
+    protected int index(int x, int y, int z) {
+        long i = (long) x - x1, j = (long) y - y1, k = (long) z - z1;
+        if (i < 0 || i >= width || j < 0 || j >= height || k < 0 || k >= depth) {
+            throw new IndexOutOfBoundsException(String.format("Point (%d, %d, %d) is outside of the grid", x, y, z));
+        }
+        return (int) ((i * height + j) * depth + k);
+    }
+
+    void set(int x, int y, int z, Object value) {
+        int index = index(x, y, z);
+        if (value == null) {
+            valid[index >>> 6] &= ~(1L << index);
+        } else {
+            valid[index >>> 6] |= 1L << index;
+            store(index, value);
+        }
+    }
+
+    void set(int x, int y, int z, Object[] line, int count) {
+        int index = index(x, y, z);
+        index(x, y, z + count - 1);
+        int word = index >>> 6;
+        long set = 0, clear = 0;
+        for (int k = 0; k < count; k++, index++) {
+            if (index >>> 6 != word) {
+                update(word, set, clear);
+                word = index >>> 6;
+                set = clear = 0;
+            }
+            if (line[k] == null) {
+                clear |= 1L << index;
+            } else {
+                set |= 1L << index;
+                store(index, line[k]);
+            }
+        }
+        update(word, set, clear);
+    }
+
+    private void update(int word, long set, long clear) {
+        if (clear != 0) {
+            VALID.getAndBitwiseAnd(valid, word, ~clear);
+        }
+        if (set != 0) {
+            VALID.getAndBitwiseOr(valid, word, set);
+        }
+    }
+
+    protected abstract Object box(int index);
+
+    protected abstract void store(int index, Object value);
+}
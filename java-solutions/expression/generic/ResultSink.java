@@ -0,0 +1,5 @@
+package expression.generic;
+
+public interface ResultSink {
+    void accept(int x, int y, int z, Object value) throws Exception;
+}
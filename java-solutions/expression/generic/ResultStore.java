@@ -0,0 +1,365 @@
+package expression.generic;
+
+import expression.CommonExpression;
+import expression.bytecode.Bytecode;
+import expression.calculator.*;
+import expression.exceptions.ParseException;
+import expression.optimizer.ExpressionOptimizer;
+import expression.parser.ExpressionParser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class ResultStore implements Closeable {
+    public static final int TILE_EDGE = 16;
+    private static final int TILE_CELLS = TILE_EDGE * TILE_EDGE * TILE_EDGE;
+    private static final int MAGIC = 0x45585052;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int TILE_HEADER_SIZE = 16;
+    private static final int BITMAP_SIZE = TILE_CELLS / 8;
+    private static final int SEGMENT_SIZE = 1 << 30;
+    private static final int APPEND_TILES = 256;
+
+    private static final int INT = 0;
+    private static final int LONG = 1;
+    private static final int DOUBLE = 2;
+
+    private final Path directory;
+    private final ExpressionCache<String> keys;
+    private final int capacity;
+    private final Map<String, Table> tables;
+
+    public ResultStore(Path directory) throws IOException {
+        this(directory, GenericTabulator.DEFAULT_CACHE_SIZE);
+    }
+
+    public ResultStore(Path directory, int cacheSize) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.keys = new ExpressionCache<>(cacheSize);
+        this.capacity = Math.max(1, cacheSize);
+        this.tables = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Table> eldest) {
+                if (size() > ResultStore.this.capacity) {
+                    eldest.getValue().close();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Table table(String mode, String expression) throws ParseException, IOException {
+        Calculator<?> calc = ModesList.get(mode);
+        int kind = kind(calc);
+        if (kind < 0) {
+            return null;
+        }
+        String key = keys.get(mode, expression, (m, e) -> key(m, calc, e));
+        synchronized (tables) {
+            Table table = tables.get(key);
+            if (table == null) {
+                table = new Table(directory.resolve(key + ".tab"), calc, kind);
+                tables.put(key, table);
+            }
+            return table;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (tables) {
+            for (Table table : tables.values()) {
+                table.channel.close();
+            }
+            tables.clear();
+            keys.clear();
+        }
+    }
+
+    private static <T> String key(String mode, Calculator<T> calc, String expression) throws ParseException {
+        CommonExpression<T> parsed = ExpressionOptimizer.optimize(ExpressionParser.parse(expression, calc), calc);
+        return Bytecode.of(parsed).fingerprint(mode);
+    }
+
+    private static int kind(Calculator<?> calc) {
+        if (calc instanceof PrimitiveIntCalculator) {
+            return INT;
+        } else if (calc instanceof PrimitiveDoubleCalculator) {
+            return DOUBLE;
+        } else if (calc instanceof ModLongCalculator) {
+            return LONG;
+        }
+        return -1;
+    }
+
+    public interface Evaluator {
+        void evaluate(int x1, int x2, int y1, int y2, int z1, int z2, ResultSink sink) throws Exception;
+    }
+
+    public static class Table {
+        private final Calculator<?> calc;
+        private final int kind;
+        private final int width;
+        private final int tileSize;
+        private final int segmentTiles;
+        private final FileChannel channel;
+        private volatile State state;
+
+        private Table(Path path, Calculator<?> calc, int kind) throws IOException {
+            this.calc = calc;
+            this.kind = kind;
+            this.width = kind == INT ? Integer.BYTES : Long.BYTES;
+            this.tileSize = TILE_HEADER_SIZE + BITMAP_SIZE + TILE_CELLS * width;
+            this.segmentTiles = SEGMENT_SIZE / tileSize;
+            this.channel = FileChannel.open(
+                    path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+            );
+            this.state = open();
+        }
+
+        private State open() throws IOException {
+            FileLock lock = channel.lock();
+            try {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                if (channel.size() < HEADER_SIZE || channel.read(header, 0) != HEADER_SIZE
+                        || header.getInt(0) != MAGIC || header.getInt(4) != VERSION
+                        || header.getInt(8) != kind || header.getInt(12) != TILE_EDGE) {
+                    channel.truncate(0);
+                    header.clear();
+                    header.putInt(MAGIC).putInt(VERSION).putInt(kind).putInt(TILE_EDGE).flip();
+                    channel.write(header, 0);
+                }
+                State state = new State(new HashMap<>(), new MappedByteBuffer[0], 0).remap(this, tiles());
+                scan(state, 0);
+                return state;
+            } finally {
+                lock.release();
+            }
+        }
+
+        private int tiles() throws IOException {
+            return (int) ((channel.size() - HEADER_SIZE) / tileSize);
+        }
+
+        private void scan(State state, int from) {
+            for (int i = from; i < state.count; i++) {
+                ByteBuffer segment = state.segments[i / segmentTiles];
+                int base = (i % segmentTiles) * tileSize;
+                state.index.put(new TileKey(segment.getInt(base), segment.getInt(base + 4), segment.getInt(base + 8)), i);
+            }
+        }
+
+        public int size() {
+            return state.count;
+        }
+
+        public void tabulate(int x1, int x2, int y1, int y2, int z1, int z2, Evaluator evaluator, ResultSink sink)
+                throws Exception {
+            if (x1 > x2 || y1 > y2 || z1 > z2) {
+                return;
+            }
+            try {
+                fill(x1, x2, y1, y2, z1, z2, evaluator);
+            } catch (ClosedChannelException e) {
+                evaluator.evaluate(x1, x2, y1, y2, z1, z2, sink);
+                return;
+            }
+            read(x1, x2, y1, y2, z1, z2, sink);
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        private void fill(int x1, int x2, int y1, int y2, int z1, int z2, Evaluator evaluator) throws Exception {
+            State current = state;
+            List<TileKey> missing = new ArrayList<>();
+            for (int tx = tile(x1); tx <= tile(x2); tx++) {
+                for (int ty = tile(y1); ty <= tile(y2); ty++) {
+                    for (int tz = tile(z1); tz <= tile(z2); tz++) {
+                        TileKey key = new TileKey(tx, ty, tz);
+                        if (!current.index.containsKey(key)) {
+                            missing.add(key);
+                        }
+                    }
+                }
+            }
+            if (missing.isEmpty()) {
+                return;
+            }
+            for (int from = 0; from < missing.size(); from += APPEND_TILES) {
+                List<TileKey> keys = missing.subList(from, Math.min(missing.size(), from + APPEND_TILES));
+                List<ByteBuffer> tiles = new ArrayList<>();
+                for (TileKey key : keys) {
+                    tiles.add(evaluate(key, evaluator));
+                }
+                append(keys, tiles);
+            }
+        }
+
+        private ByteBuffer evaluate(TileKey key, Evaluator evaluator) throws Exception {
+            ByteBuffer tile = ByteBuffer.allocate(tileSize).order(ByteOrder.LITTLE_ENDIAN);
+            tile.putInt(0, key.x).putInt(4, key.y).putInt(8, key.z);
+            int x0 = key.x * TILE_EDGE, y0 = key.y * TILE_EDGE, z0 = key.z * TILE_EDGE;
+            long[] nulls = new long[TILE_CELLS / Long.SIZE];
+            evaluator.evaluate(
+                    x0, x0 + TILE_EDGE - 1, y0, y0 + TILE_EDGE - 1, z0, z0 + TILE_EDGE - 1,
+                    (x, y, z, value) -> {
+                        int cell = cell(x - x0, y - y0, z - z0);
+                        int offset = TILE_HEADER_SIZE + BITMAP_SIZE + cell * width;
+                        if (value == null) {
+                            nulls[cell >>> 6] |= 1L << cell;
+                        } else if (kind == INT) {
+                            tile.putInt(offset, ((Number) value).intValue());
+                        } else if (kind == LONG) {
+                            tile.putLong(offset, ((Number) value).longValue());
+                        } else {
+                            tile.putDouble(offset, ((Number) value).doubleValue());
+                        }
+                    }
+            );
+            for (int i = 0; i < nulls.length; i++) {
+                tile.putLong(TILE_HEADER_SIZE + i * Long.BYTES, nulls[i]);
+            }
+            return tile;
+        }
+
+        private synchronized void append(List<TileKey> keys, List<ByteBuffer> tiles) throws IOException {
+            FileLock lock = channel.lock();
+            try {
+                State current = new State(new HashMap<>(state.index), state.segments, state.count).remap(this, tiles());
+                scan(current, state.count);
+                int count = current.count;
+                long position = HEADER_SIZE + (long) count * tileSize;
+                for (int i = 0; i < keys.size(); i++) {
+                    if (current.index.putIfAbsent(keys.get(i), count) == null) {
+                        ByteBuffer tile = tiles.get(i);
+                        while (tile.hasRemaining()) {
+                            position += channel.write(tile, position);
+                        }
+                        count++;
+                    }
+                }
+                state = current.remap(this, count);
+            } finally {
+                lock.release();
+            }
+        }
+
+        private void read(int x1, int x2, int y1, int y2, int z1, int z2, ResultSink sink) throws Exception {
+            State current = state;
+            for (long i = x1; i <= x2; i++) {
+                int x = (int) i, tx = tile(x);
+                for (long j = y1; j <= y2; j++) {
+                    int y = (int) j, ty = tile(y);
+                    for (int tz = tile(z1); tz <= tile(z2); tz++) {
+                        int index = current.index.get(new TileKey(tx, ty, tz));
+                        ByteBuffer segment = current.segments[index / segmentTiles];
+                        int base = (index % segmentTiles) * tileSize;
+                        if (segment.getInt(base) != tx || segment.getInt(base + 4) != ty || segment.getInt(base + 8) != tz) {
+                            throw new IOException(String.format("Corrupted result store tile %d: expected (%d, %d, %d)", index, tx, ty, tz));
+                        }
+                        int z0 = tz * TILE_EDGE;
+                        int from = Math.max(z1, z0), to = Math.min(z2, z0 + TILE_EDGE - 1);
+                        int cell = cell(x - tx * TILE_EDGE, y - ty * TILE_EDGE, from - z0);
+                        for (long z = from; z <= to; z++, cell++) {
+                            long nulls = segment.getLong(base + TILE_HEADER_SIZE + (cell >>> 6) * Long.BYTES);
+                            Object value = (nulls & (1L << cell)) != 0 ? null : value(segment, base, cell);
+                            sink.accept(x, y, (int) z, value);
+                        }
+                    }
+                }
+            }
+        }
+
+        private Object value(ByteBuffer segment, int base, int cell) {
+            int offset = base + TILE_HEADER_SIZE + BITMAP_SIZE + cell * width;
+            if (kind == INT) {
+                return calc.valueOf(segment.getInt(offset));
+            } else if (kind == LONG) {
+                return segment.getLong(offset);
+            }
+            return segment.getDouble(offset);
+        }
+
+        private static int tile(int coordinate) {
+            return Math.floorDiv(coordinate, TILE_EDGE);
+        }
+
+        private static int cell(int x, int y, int z) {
+            return (x * TILE_EDGE + y) * TILE_EDGE + z;
+        }
+    }
+
+    private static class State {
+        private final Map<TileKey, Integer> index;
+        private final MappedByteBuffer[] segments;
+        private final int count;
+
+        private State(Map<TileKey, Integer> index, MappedByteBuffer[] segments, int count) {
+            this.index = index;
+            this.segments = segments;
+            this.count = count;
+        }
+
+        private State remap(Table table, int count) throws IOException {
+            int used = (count + table.segmentTiles - 1) / table.segmentTiles;
+            MappedByteBuffer[] remapped = Arrays.copyOf(segments, used);
+            for (int i = Math.max(0, (this.count - 1) / table.segmentTiles); i < used; i++) {
+                int tiles = Math.min(table.segmentTiles, count - i * table.segmentTiles);
+                remapped[i] = table.channel.map(
+                        FileChannel.MapMode.READ_ONLY,
+                        HEADER_SIZE + (long) i * table.segmentTiles * table.tileSize,
+                        (long) tiles * table.tileSize
+                );
+                remapped[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new State(index, remapped, count);
+        }
+    }
+
+    private static class TileKey {
+        private final int x, y, z;
+
+        private TileKey(int x, int y, int z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof TileKey)) {
+                return false;
+            }
+            TileKey other = (TileKey) obj;
+            return x == other.x && y == other.y && z == other.z;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(x, y, z);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package expression.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+
+@Name("expression.ErrorStatistics")
+@Label("Expression Error Statistics")
+@Category("Expression")
+@Description("Cumulative evaluation error counts per mode and exception class")
+@Period("1 s")
+public class ErrorStatisticsEvent extends Event {
+    @Label("Mode")
+    String mode;
+
+    @Label("Exception")
+    String exception;
+
+    @Label("Count")
+    long count;
+}
@@ -0,0 +1,187 @@
+package expression.metrics;
+
+import expression.*;
+import expression.calculator.Calculator;
+import expression.exceptions.EvaluationStatus;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+public class InstrumentedExpression<T> implements CommonExpression<T> {
+    private static final ThreadLocal<long[]> CHILD_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final CommonExpression<T> expr;
+    private final Metrics.NodeCounter counter;
+
+    private InstrumentedExpression(CommonExpression<T> expr) {
+        this.expr = expr;
+        this.counter = Metrics.counter(expr.getClass().getSimpleName());
+    }
+
+    public static <T> CommonExpression<T> of(CommonExpression<T> expr, Calculator<T> calc) {
+        Map<CommonExpression<T>, CommonExpression<T>> wrapped = new IdentityHashMap<>();
+        for (CommonExpression<T> node : PostOrder.of(expr)) {
+            CommonExpression<T> rebuilt = node;
+            if (node instanceof BinaryOperation) {
+                BinaryOperation<T> op = (BinaryOperation<T>) node;
+                rebuilt = rebuild(op, calc, wrapped.get(op.getFirst()), wrapped.get(op.getSecond()));
+            } else if (node instanceof UnaryOperation) {
+                UnaryOperation<T> op = (UnaryOperation<T>) node;
+                rebuilt = rebuild(op, calc, wrapped.get(op.getArg()));
+            }
+            wrapped.put(node, new InstrumentedExpression<>(rebuilt));
+        }
+        return wrapped.get(expr);
+    }
+
+    private long enter() {
+        long[] child = CHILD_NANOS.get();
+        long saved = child[0];
+        child[0] = 0;
+        return saved;
+    }
+
+    private void exit(long saved, long start) {
+        long total = System.nanoTime() - start;
+        long[] child = CHILD_NANOS.get();
+        counter.record(total, total - child[0]);
+        child[0] = saved + total;
+    }
+
+    @Override
+    public T evaluate(int x, int y, int z) {
+        long saved = enter();
+        long start = System.nanoTime();
+        try {
+            return expr.evaluate(x, y, z);
+        } finally {
+            exit(saved, start);
+        }
+    }
+
+    @Override
+    public T evaluate(int[] frame) {
+        long saved = enter();
+        long start = System.nanoTime();
+        try {
+            return expr.evaluate(frame);
+        } finally {
+            exit(saved, start);
+        }
+    }
+
+    @Override
+    public int evaluateInt(int x, int y, int z) {
+        long saved = enter();
+        long start = System.nanoTime();
+        try {
+            return expr.evaluateInt(x, y, z);
+        } finally {
+            exit(saved, start);
+        }
+    }
+
+    @Override
+    public int evaluateInt(int x, int y, int z, EvaluationStatus status) {
+        long saved = enter();
+        long start = System.nanoTime();
+        try {
+            return expr.evaluateInt(x, y, z, status);
+        } finally {
+            exit(saved, start);
+        }
+    }
+
+    @Override
+    public int evaluateInt(int[] frame, EvaluationStatus status) {
+        long saved = enter();
+        long start = System.nanoTime();
+        try {
+            return expr.evaluateInt(frame, status);
+        } finally {
+            exit(saved, start);
+        }
+    }
+
+    @Override
+    public long evaluateLong(int x, int y, int z, EvaluationStatus status) {
+        long saved = enter();
+        long start = System.nanoTime();
+        try {
+            return expr.evaluateLong(x, y, z, status);
+        } finally {
+            exit(saved, start);
+        }
+    }
+
+    @Override
+    public long evaluateLong(int[] frame, EvaluationStatus status) {
+        long saved = enter();
+        long start = System.nanoTime();
+        try {
+            return expr.evaluateLong(frame, status);
+        } finally {
+            exit(saved, start);
+        }
+    }
+
+    @Override
+    public double evaluateDouble(int x, int y, int z) {
+        long saved = enter();
+        long start = System.nanoTime();
+        try {
+            return expr.evaluateDouble(x, y, z);
+        } finally {
+            exit(saved, start);
+        }
+    }
+
+    @Override
+    public double evaluateDouble(int[] frame) {
+        long saved = enter();
+        long start = System.nanoTime();
+        try {
+            return expr.evaluateDouble(frame);
+        } finally {
+            exit(saved, start);
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof InstrumentedExpression && expr.equals(((InstrumentedExpression<?>) obj).expr);
+    }
+
+    @Override
+    public int hashCode() {
+        return expr.hashCode();
+    }
+
+    private static <T> CommonExpression<T> rebuild(
+            BinaryOperation<T> op, Calculator<T> calc, CommonExpression<T> first, CommonExpression<T> second
+    ) {
+        if (op instanceof Add) {
+            return new Add<>(calc, first, second);
+        } else if (op instanceof Subtract) {
+            return new Subtract<>(calc, first, second);
+        } else if (op instanceof Multiply) {
+            return new Multiply<>(calc, first, second);
+        } else if (op instanceof Divide) {
+            return new Divide<>(calc, first, second);
+        } else if (op instanceof Mod) {
+            return new Mod<>(calc, first, second);
+        }
+        throw new IllegalStateException("Unknown node: " + op.getClass().getSimpleName());
+    }
+
+    private static <T> CommonExpression<T> rebuild(UnaryOperation<T> op, Calculator<T> calc, CommonExpression<T> arg) {
+        if (op instanceof Negate) {
+            return new Negate<>(calc, arg);
+        } else if (op instanceof Abs) {
+            return new Abs<>(calc, arg);
+        } else if (op instanceof Square) {
+            return new Square<>(calc, arg);
+        }
+        throw new IllegalStateException("Unknown node: " + op.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,174 @@
+package expression.metrics;
+
+import expression.exceptions.EvaluationStatus;
+import jdk.jfr.FlightRecorder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Metrics {
+    public static final String PROPERTY = "expression.metrics";
+
+    private static volatile boolean enabled = Boolean.getBoolean(PROPERTY);
+
+    private static final LongAdder parses = new LongAdder();
+    private static final LongAdder parseErrors = new LongAdder();
+    private static final LongAdder parseNanos = new LongAdder();
+    private static final LongAdder tabulations = new LongAdder();
+    private static final LongAdder cells = new LongAdder();
+    private static final LongAdder tabulationNanos = new LongAdder();
+    private static final LongAdder evaluateNanos = new LongAdder();
+    private static final LongAdder errorNanos = new LongAdder();
+    private static final LongAdder boxingNanos = new LongAdder();
+    private static final Map<String, NodeCounter> nodes = new ConcurrentHashMap<>();
+    private static final Map<String, Map<String, LongAdder>> errors = new ConcurrentHashMap<>();
+
+    static {
+        if (enabled) {
+            PeriodicEvents.register();
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void enable() {
+        PeriodicEvents.register();
+        enabled = true;
+    }
+
+    public static void disable() {
+        enabled = false;
+    }
+
+    public static void reset() {
+        for (LongAdder adder : new LongAdder[]{
+                parses, parseErrors, parseNanos, tabulations, cells, tabulationNanos, evaluateNanos, errorNanos, boxingNanos
+        }) {
+            adder.reset();
+        }
+        nodes.clear();
+        errors.clear();
+    }
+
+    public static MetricsSnapshot snapshot() {
+        Map<String, NodeStatistics> nodeStatistics = new HashMap<>();
+        nodes.forEach((type, counter) -> nodeStatistics.put(type, counter.snapshot()));
+        Map<String, Map<String, Long>> errorCounts = new HashMap<>();
+        errors.forEach((mode, counts) -> {
+            Map<String, Long> copy = new HashMap<>();
+            counts.forEach((exception, count) -> copy.put(exception, count.sum()));
+            errorCounts.put(mode, Map.copyOf(copy));
+        });
+        return new MetricsSnapshot(
+                parses.sum(), parseErrors.sum(), parseNanos.sum(),
+                tabulations.sum(), cells.sum(), tabulationNanos.sum(),
+                evaluateNanos.sum(), errorNanos.sum(), boxingNanos.sum(),
+                nodeStatistics, errorCounts
+        );
+    }
+
+    public static ParseEvent beginParse() {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        return event;
+    }
+
+    public static void endParse(ParseEvent event, long nanos, Exception error) {
+        parses.increment();
+        parseNanos.add(nanos);
+        if (error != null) {
+            parseErrors.increment();
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.success = error == null;
+            event.error = error == null ? null : error.getClass().getSimpleName();
+            event.commit();
+        }
+    }
+
+    public static TabulationProbe beginTabulation(String mode, String expression) {
+        return new TabulationProbe(mode, expression);
+    }
+
+    static void endTabulation(TabulationProbe probe) {
+        tabulations.increment();
+        cells.add(probe.cells.sum());
+        tabulationNanos.add(System.nanoTime() - probe.start);
+        evaluateNanos.add(probe.evaluateNanos.sum());
+        errorNanos.add(probe.errorNanos.sum());
+        boxingNanos.add(probe.boxingNanos.sum());
+    }
+
+    static NodeCounter counter(String type) {
+        return nodes.computeIfAbsent(type, t -> new NodeCounter());
+    }
+
+    public static void recordError(String mode, String exception) {
+        errors.computeIfAbsent(mode, m -> new ConcurrentHashMap<>())
+                .computeIfAbsent(exception, e -> new LongAdder())
+                .increment();
+    }
+
+    public static String exceptionName(int code) {
+        switch (code) {
+            case EvaluationStatus.OVERFLOW:
+                return "OverflowException";
+            case EvaluationStatus.DIVISION_BY_ZERO:
+                return "DivisionByZeroException";
+            default:
+                return "ArithmeticException";
+        }
+    }
+
+    private static void emitNodeStatistics() {
+        nodes.forEach((type, counter) -> {
+            NodeStatisticsEvent event = new NodeStatisticsEvent();
+            event.type = type;
+            event.count = counter.count.sum();
+            event.totalNanos = counter.totalNanos.sum();
+            event.selfNanos = counter.selfNanos.sum();
+            event.commit();
+        });
+    }
+
+    private static void emitErrorStatistics() {
+        errors.forEach((mode, counts) -> counts.forEach((exception, count) -> {
+            ErrorStatisticsEvent event = new ErrorStatisticsEvent();
+            event.mode = mode;
+            event.exception = exception;
+            event.count = count.sum();
+            event.commit();
+        }));
+    }
+
+    private static class PeriodicEvents {
+        static {
+            FlightRecorder.addPeriodicEvent(NodeStatisticsEvent.class, Metrics::emitNodeStatistics);
+            FlightRecorder.addPeriodicEvent(ErrorStatisticsEvent.class, Metrics::emitErrorStatistics);
+        }
+
+        private static void register() {
+        }
+    }
+
+    static class NodeCounter {
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAdder selfNanos = new LongAdder();
+
+        void record(long total, long self) {
+            count.increment();
+            totalNanos.add(total);
+            selfNanos.add(self);
+        }
+
+        NodeStatistics snapshot() {
+            return new NodeStatistics(count.sum(), totalNanos.sum(), selfNanos.sum());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package expression.metrics;
+
+import java.util.Map;
+
+public class MetricsSnapshot {
+    private final long parses;
+    private final long parseErrors;
+    private final long parseNanos;
+    private final long tabulations;
+    private final long cells;
+    private final long tabulationNanos;
+    private final long evaluateNanos;
+    private final long errorNanos;
+    private final long boxingNanos;
+    private final Map<String, NodeStatistics> nodes;
+    private final Map<String, Map<String, Long>> errors;
+
+    MetricsSnapshot(
+            long parses, long parseErrors, long parseNanos,
+            long tabulations, long cells, long tabulationNanos, long evaluateNanos, long errorNanos, long boxingNanos,
+            Map<String, NodeStatistics> nodes, Map<String, Map<String, Long>> errors
+    ) {
+        this.parses = parses;
+        this.parseErrors = parseErrors;
+        this.parseNanos = parseNanos;
+        this.tabulations = tabulations;
+        this.cells = cells;
+        this.tabulationNanos = tabulationNanos;
+        this.evaluateNanos = evaluateNanos;
+        this.errorNanos = errorNanos;
+        this.boxingNanos = boxingNanos;
+        this.nodes = Map.copyOf(nodes);
+        this.errors = Map.copyOf(errors);
+    }
+
+    public long getParses() {
+        return parses;
+    }
+
+    public long getParseErrors() {
+        return parseErrors;
+    }
+
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    public long getTabulations() {
+        return tabulations;
+    }
+
+    public long getCells() {
+        return cells;
+    }
+
+    public long getTabulationNanos() {
+        return tabulationNanos;
+    }
+
+    public long getEvaluateNanos() {
+        return evaluateNanos;
+    }
+
+    public long getErrorNanos() {
+        return errorNanos;
+    }
+
+    public long getBoxingNanos() {
+        return boxingNanos;
+    }
+
+    public Map<String, NodeStatistics> getNodes() {
+        return nodes;
+    }
+
+    public Map<String, Map<String, Long>> getErrors() {
+        return errors;
+    }
+
+    public long getErrors(String mode, String exception) {
+        return errors.getOrDefault(mode, Map.of()).getOrDefault(exception, 0L);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Parses: %d (%d failed), %dns\n", parses, parseErrors, parseNanos));
+        sb.append(String.format(
+                "Tabulations: %d, %d cells, %dns (evaluation %dns, failed evaluation %dns, boxing %dns)\n",
+                tabulations, cells, tabulationNanos, evaluateNanos, errorNanos, boxingNanos
+        ));
+        nodes.forEach((type, stats) -> sb.append("\t").append(type).append(": ").append(stats).append("\n"));
+        errors.forEach((mode, counts) -> sb.append("Errors in mode ").append(mode).append(": ").append(counts).append("\n"));
+        return sb.toString();
+    }
+}
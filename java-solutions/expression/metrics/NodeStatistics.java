@@ -0,0 +1,30 @@
+package expression.metrics;
+
+public class NodeStatistics {
+    private final long count;
+    private final long totalNanos;
+    private final long selfNanos;
+
+    public NodeStatistics(long count, long totalNanos, long selfNanos) {
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.selfNanos = selfNanos;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getSelfNanos() {
+        return selfNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, total=%dns, self=%dns", count, totalNanos, selfNanos);
+    }
+}
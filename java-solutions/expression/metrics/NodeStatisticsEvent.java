@@ -0,0 +1,30 @@
+package expression.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.Timespan;
+
+@Name("expression.NodeStatistics")
+@Label("Expression Node Statistics")
+@Category("Expression")
+@Description("Cumulative evaluation counts and times per expression node type")
+@Period("1 s")
+public class NodeStatisticsEvent extends Event {
+    @Label("Node Type")
+    String type;
+
+    @Label("Evaluations")
+    long count;
+
+    @Label("Total Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long totalNanos;
+
+    @Label("Self Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long selfNanos;
+}
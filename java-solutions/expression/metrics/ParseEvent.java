@@ -0,0 +1,19 @@
+package expression.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("expression.Parse")
+@Label("Expression Parse")
+@Category("Expression")
+@Description("Parsing of a single expression")
+public class ParseEvent extends Event {
+    @Label("Success")
+    boolean success;
+
+    @Label("Error")
+    String error;
+}
@@ -0,0 +1,42 @@
+package expression.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("expression.Tabulation")
+@Label("Expression Tabulation")
+@Category("Expression")
+@Description("Tabulation of an expression over a box, split into phases")
+public class TabulationEvent extends Event {
+    @Label("Mode")
+    String mode;
+
+    @Label("Expression")
+    String expression;
+
+    @Label("Cells")
+    long cells;
+
+    @Label("Errors")
+    long errors;
+
+    @Label("Parse Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long parseNanos;
+
+    @Label("Evaluation Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long evaluateNanos;
+
+    @Label("Failed Evaluation Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long errorNanos;
+
+    @Label("Boxing Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long boxingNanos;
+}
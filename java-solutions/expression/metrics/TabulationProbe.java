@@ -0,0 +1,53 @@
+package expression.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class TabulationProbe {
+    final String mode;
+    final long start = System.nanoTime();
+    final LongAdder cells = new LongAdder();
+    final LongAdder errors = new LongAdder();
+    final LongAdder evaluateNanos = new LongAdder();
+    final LongAdder errorNanos = new LongAdder();
+    final LongAdder boxingNanos = new LongAdder();
+    private final TabulationEvent event = new TabulationEvent();
+    private long parseNanos;
+
+    TabulationProbe(String mode, String expression) {
+        this.mode = mode;
+        event.mode = mode;
+        event.expression = expression;
+        event.begin();
+    }
+
+    public void parsed(long nanos) {
+        parseNanos += nanos;
+    }
+
+    public void evaluated(long evaluate, long boxing) {
+        cells.increment();
+        evaluateNanos.add(evaluate);
+        boxingNanos.add(boxing);
+    }
+
+    public void failed(long evaluate, String exception) {
+        cells.increment();
+        errors.increment();
+        errorNanos.add(evaluate);
+        Metrics.recordError(mode, exception);
+    }
+
+    public void end() {
+        Metrics.endTabulation(this);
+        event.end();
+        if (event.shouldCommit()) {
+            event.cells = cells.sum();
+            event.errors = errors.sum();
+            event.parseNanos = parseNanos;
+            event.evaluateNanos = evaluateNanos.sum();
+            event.errorNanos = errorNanos.sum();
+            event.boxingNanos = boxingNanos.sum();
+            event.commit();
+        }
+    }
+}
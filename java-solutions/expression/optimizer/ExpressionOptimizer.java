@@ -0,0 +1,176 @@
+package expression.optimizer;
+
+import expression.*;
+import expression.calculator.*;
+
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+public class ExpressionOptimizer {
+    private enum Identity {
+        MULTIPLY_ONE, ADD_ZERO, SUBTRACT_ZERO, DOUBLE_NEGATE, ABS_ABS
+    }
+
+    private static final Map<Class<?>, Set<Identity>> IDENTITIES = Map.of(
+            IntegerCalculator.class, EnumSet.of(
+                    Identity.MULTIPLY_ONE, Identity.ADD_ZERO, Identity.SUBTRACT_ZERO, Identity.ABS_ABS
+            ),
+            UncheckedIntegerCalculator.class, EnumSet.allOf(Identity.class),
+            ModIntegerCalculator.class, EnumSet.allOf(Identity.class),
+            ModLongCalculator.class, EnumSet.allOf(Identity.class),
+            ByteCalculator.class, EnumSet.allOf(Identity.class),
+            BigIntegerCalculator.class, EnumSet.allOf(Identity.class),
+            HybridIntegerCalculator.class, EnumSet.allOf(Identity.class),
+            DoubleCalculator.class, EnumSet.of(
+                    Identity.MULTIPLY_ONE, Identity.SUBTRACT_ZERO, Identity.DOUBLE_NEGATE
+            )
+    );
+
+    public static <T> CommonExpression<T> optimize(CommonExpression<T> expr, Calculator<T> calc) {
+        Pass<T> pass = new Pass<>(calc);
+        for (CommonExpression<T> node : PostOrder.of(expr)) {
+            pass.optimize(node);
+        }
+        return pass.optimize(expr);
+    }
+
+    private static class Pass<T> {
+        private final Calculator<T> calc;
+        private final Set<Identity> identities;
+        private final T zero;
+        private final T one;
+        private final Map<CommonExpression<T>, CommonExpression<T>> memo = new IdentityHashMap<>();
+        private final ExpressionInterner<T> nodes = new ExpressionInterner<>();
+
+        private Pass(Calculator<T> calc) {
+            this.calc = calc;
+            this.identities = IDENTITIES.getOrDefault(calc.getClass(), EnumSet.noneOf(Identity.class));
+            this.zero = identities.isEmpty() ? null : calc.valueOf(0);
+            this.one = identities.isEmpty() ? null : calc.valueOf(1);
+        }
+
+        private CommonExpression<T> optimize(CommonExpression<T> expr) {
+            CommonExpression<T> result = memo.get(expr);
+            if (result == null) {
+                result = nodes.intern(simplify(expr));
+                memo.put(expr, result);
+            }
+            return result;
+        }
+
+        private CommonExpression<T> simplify(CommonExpression<T> expr) {
+            if (expr instanceof BinaryOperation) {
+                BinaryOperation<T> op = (BinaryOperation<T>) expr;
+                CommonExpression<T> first = optimize(op.getFirst());
+                CommonExpression<T> second = optimize(op.getSecond());
+                if (first instanceof Const && second instanceof Const) {
+                    try {
+                        return new Const<>(calculate(op, value(first), value(second)));
+                    } catch (RuntimeException e) {
+                        // keep the operation so that evaluation fails exactly as before
+                    }
+                }
+                if (op instanceof Multiply && has(Identity.MULTIPLY_ONE)) {
+                    if (isConst(second, one)) {
+                        return first;
+                    } else if (isConst(first, one)) {
+                        return second;
+                    }
+                } else if (op instanceof Add && has(Identity.ADD_ZERO)) {
+                    if (isConst(second, zero)) {
+                        return first;
+                    } else if (isConst(first, zero)) {
+                        return second;
+                    }
+                } else if (op instanceof Subtract && has(Identity.SUBTRACT_ZERO) && isConst(second, zero)) {
+                    return first;
+                }
+                return first == op.getFirst() && second == op.getSecond() ? op : rebuild(op, first, second);
+            } else if (expr instanceof UnaryOperation) {
+                UnaryOperation<T> op = (UnaryOperation<T>) expr;
+                CommonExpression<T> arg = optimize(op.getArg());
+                if (arg instanceof Const) {
+                    try {
+                        return new Const<>(calculate(op, value(arg)));
+                    } catch (RuntimeException e) {
+                        // keep the operation so that evaluation fails exactly as before
+                    }
+                }
+                if (op instanceof Negate && arg instanceof Negate && has(Identity.DOUBLE_NEGATE)) {
+                    return ((Negate<T>) arg).getArg();
+                } else if (op instanceof Abs && arg instanceof Abs && has(Identity.ABS_ABS)) {
+                    return arg;
+                }
+                return arg == op.getArg() ? op : rebuild(op, arg);
+            }
+            return expr;
+        }
+
+        private boolean has(Identity identity) {
+            return identities.contains(identity);
+        }
+
+        private boolean isConst(CommonExpression<T> expr, T value) {
+            return expr instanceof Const && Objects.equals(value(expr), value);
+        }
+
+        private T value(CommonExpression<T> expr) {
+            return ((Const<T>) expr).getValue();
+        }
+
+        private T calculate(BinaryOperation<T> op, T x, T y) {
+            if (op instanceof Add) {
+                return calc.add(x, y);
+            } else if (op instanceof Subtract) {
+                return calc.subtract(x, y);
+            } else if (op instanceof Multiply) {
+                return calc.multiply(x, y);
+            } else if (op instanceof Divide) {
+                return calc.divide(x, y);
+            } else if (op instanceof Mod) {
+                return calc.mod(x, y);
+            }
+            throw new UnsupportedOperationException();
+        }
+
+        private T calculate(UnaryOperation<T> op, T x) {
+            if (op instanceof Negate) {
+                return calc.negate(x);
+            } else if (op instanceof Abs) {
+                return calc.abs(x);
+            } else if (op instanceof Square) {
+                return calc.square(x);
+            }
+            throw new UnsupportedOperationException();
+        }
+
+        private CommonExpression<T> rebuild(BinaryOperation<T> op, CommonExpression<T> first, CommonExpression<T> second) {
+            if (op instanceof Add) {
+                return new Add<>(calc, first, second);
+            } else if (op instanceof Subtract) {
+                return new Subtract<>(calc, first, second);
+            } else if (op instanceof Multiply) {
+                return new Multiply<>(calc, first, second);
+            } else if (op instanceof Divide) {
+                return new Divide<>(calc, first, second);
+            } else if (op instanceof Mod) {
+                return new Mod<>(calc, first, second);
+            }
+            throw new UnsupportedOperationException();
+        }
+
+        private CommonExpression<T> rebuild(UnaryOperation<T> op, CommonExpression<T> arg) {
+            if (op instanceof Negate) {
+                return new Negate<>(calc, arg);
+            } else if (op instanceof Abs) {
+                return new Abs<>(calc, arg);
+            } else if (op instanceof Square) {
+                return new Square<>(calc, arg);
+            }
+            throw new UnsupportedOperationException();
+        }
+    }
+}
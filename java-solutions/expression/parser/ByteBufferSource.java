@@ -0,0 +1,25 @@
+package expression.parser;
+
+import java.nio.ByteBuffer;
+
+public class ByteBufferSource implements CharSource {
+    private final ByteBuffer buffer;
+    private final int end;
+    private int pos;
+
+    public ByteBufferSource(final ByteBuffer buffer, final int from, final int to) {
+        this.buffer = buffer;
+        this.pos = from;
+        this.end = to;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return pos < end;
+    }
+
+    @Override
+    public char next() {
+        return (char) (buffer.get(pos++) & 0xFF);
+    }
+}
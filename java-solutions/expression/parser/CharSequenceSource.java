@@ -0,0 +1,27 @@
+package expression.parser;
+
+public class CharSequenceSource implements CharSource {
+    private final CharSequence data;
+    private final int end;
+    private int pos;
+
+    public CharSequenceSource(final CharSequence data) {
+        this(data, 0, data.length());
+    }
+
+    public CharSequenceSource(final CharSequence data, final int from, final int to) {
+        this.data = data;
+        this.pos = from;
+        this.end = to;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return pos < end;
+    }
+
+    @Override
+    public char next() {
+        return data.charAt(pos++);
+    }
+}
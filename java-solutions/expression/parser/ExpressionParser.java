@@ -3,118 +3,355 @@ package expression.parser;
 import expression.*;
 import expression.exceptions.*;
 import expression.calculator.Calculator;
+import expression.metrics.Metrics;
+import expression.metrics.ParseEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 public class ExpressionParser {
+    private static final Set<String> KEYWORDS = Set.of("abs", "square", "mod");
+    private static final long MAX_REGION_SIZE = Integer.MAX_VALUE;
+    private static final ThreadLocal<Lexer> LEXERS = ThreadLocal.withInitial(Lexer::new);
+
     public static <T> CommonExpression<T> parse(String expression, Calculator<T> calc) throws ParseException {
-        return new InnerParser<>(expression, calc).parse();
+        return parse(expression, calc, VariablesList.DEFAULT);
+    }
+
+    public static <T> CommonExpression<T> parse(
+            String expression, Calculator<T> calc, List<String> variables
+    ) throws ParseException {
+        return parse(new StringSource(expression), calc, variables);
+    }
+
+    public static <T> CommonExpression<T> parse(
+            CharSource source, Calculator<T> calc, List<String> variables
+    ) throws ParseException {
+        if (!Metrics.isEnabled()) {
+            return new InnerParser<>(source, calc, variables).parse();
+        }
+        ParseEvent event = Metrics.beginParse();
+        long start = System.nanoTime();
+        try {
+            CommonExpression<T> result = new InnerParser<>(source, calc, variables).parse();
+            Metrics.endParse(event, System.nanoTime() - start, null);
+            return result;
+        } catch (ParseException | RuntimeException e) {
+            Metrics.endParse(event, System.nanoTime() - start, e);
+            throw e;
+        }
+    }
+
+    public static <T> List<CommonExpression<T>> parseAll(
+            Path path, Calculator<T> calc
+    ) throws IOException, ParseException {
+        return parseAll(path, calc, VariablesList.DEFAULT);
+    }
+
+    public static <T> List<CommonExpression<T>> parseAll(
+            Path path, Calculator<T> calc, List<String> variables
+    ) throws IOException, ParseException {
+        List<CommonExpression<T>> result = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long offset = 0;
+            while (offset < size) {
+                MappedByteBuffer buffer = channel.map(
+                        FileChannel.MapMode.READ_ONLY, offset, Math.min(size - offset, MAX_REGION_SIZE)
+                );
+                int limit = buffer.limit();
+                if (offset + limit < size) {
+                    while (limit > 0 && buffer.get(limit - 1) != '\n') {
+                        limit--;
+                    }
+                    if (limit == 0) {
+                        throw new IOException("Line is too long at offset " + offset);
+                    }
+                }
+                parseLines(buffer, limit, calc, variables, result);
+                offset += limit;
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void parseLines(
+            ByteBuffer buffer, int limit, Calculator<T> calc, List<String> variables,
+            List<CommonExpression<T>> result
+    ) throws ParseException {
+        int[] starts = new int[16];
+        int[] ends = new int[16];
+        int lines = 0;
+        int start = 0;
+        for (int i = 0; i <= limit; i++) {
+            if (i == limit && start == limit) {
+                break;
+            } else if (i == limit || buffer.get(i) == '\n') {
+                if (lines == starts.length) {
+                    starts = Arrays.copyOf(starts, 2 * lines);
+                    ends = Arrays.copyOf(ends, 2 * lines);
+                }
+                starts[lines] = start;
+                ends[lines] = i > start && buffer.get(i - 1) == '\r' ? i - 1 : i;
+                lines++;
+                start = i + 1;
+            }
+        }
+        int[] from = starts;
+        int[] to = ends;
+        Object[] parsed = new Object[lines];
+        IntStream.range(0, lines).parallel().forEach(i -> {
+            try {
+                parsed[i] = parse(new ByteBufferSource(buffer, from[i], to[i]), calc, variables);
+            } catch (ParseException e) {
+                parsed[i] = e;
+            }
+        });
+        for (int i = 0; i < lines; i++) {
+            if (parsed[i] instanceof ParseException) {
+                ParseException e = new ParseException(String.format(
+                        "Line %d: %s", result.size() + 1, ((ParseException) parsed[i]).getMessage()
+                ));
+                e.initCause((ParseException) parsed[i]);
+                throw e;
+            }
+            result.add((CommonExpression<T>) parsed[i]);
+        }
     }
 
-    private static class InnerParser<T> extends BaseParser {
+    private static class InnerParser<T> {
+        private static final int ABS = 0;
+        private static final int SQUARE = 1;
+        private static final int MOD = 2;
+        private static final int VARIABLES = 3;
+
+        private static final int GROUP = 0;
+        private static final int ADD = 1;
+        private static final int SUBTRACT = 2;
+        private static final int MULTIPLY = 3;
+        private static final int DIVIDE = 4;
+        private static final int MODULO = 5;
+        private static final int NEGATE = 6;
+        private static final int ABS_VALUE = 7;
+        private static final int SQUARE_VALUE = 8;
+        private static final int ADDITIVE = 1;
+        private static final int MULTIPLICATIVE = 2;
+
         private final Calculator<T> calc;
+        private final List<String> variables;
+        private final Lexer lexer;
+        private final ExpressionInterner<T> nodes = new ExpressionInterner<>();
+        private final List<CommonExpression<T>> operands = new ArrayList<>();
+        private int[] stack = new int[16];
+        private int ops = 0;
+        private int token = 0;
 
-        public InnerParser(String data, Calculator<T> calc) {
-            super(new StringSource(data));
+        public InnerParser(CharSource source, Calculator<T> calc, List<String> variables) {
             this.calc = calc;
+            this.variables = variables;
+            String[] names = new String[VARIABLES + variables.size()];
+            names[ABS] = "abs";
+            names[SQUARE] = "square";
+            names[MOD] = "mod";
+            Set<String> unique = new HashSet<>();
+            for (int i = 0; i < variables.size(); i++) {
+                String name = variables.get(i);
+                if (!isIdentifier(name) || !unique.add(name)) {
+                    throw new IllegalArgumentException("Invalid variable name: " + name);
+                }
+                names[VARIABLES + i] = name;
+            }
+            this.lexer = LEXERS.get();
+            lexer.tokenize(source, calc, names);
         }
 
         private CommonExpression<T> parse() throws ParseException {
-            CommonExpression<T> res = parseAdditiveGroup();
-            if (!eof()) {
-                throw new IllegalSymbolException(makeExceptionMessage("binary operation"));
+            while (true) {
+                parseElement();
+                reduceUnary();
+                while (lexer.kind(token) == Lexer.CLOSE) {
+                    reduceBinary(ADDITIVE);
+                    if (ops == 0) {
+                        throw new IllegalSymbolException(makeExceptionMessage("binary operation"));
+                    }
+                    token++;
+                    ops--;
+                    reduceUnary();
+                }
+                int op = binaryOperation();
+                if (op == GROUP) {
+                    reduceBinary(ADDITIVE);
+                    if (ops != 0) {
+                        throw new BracketsBalanceException(makeExceptionMessage(")"));
+                    } else if (lexer.kind(token) != Lexer.EOF) {
+                        throw new IllegalSymbolException(makeExceptionMessage("binary operation"));
+                    }
+                    return operands.get(0);
+                }
+                reduceBinary(precedence(op));
+                push(op);
             }
-            return res;
         }
 
-        private CommonExpression<T> parseAdditiveGroup() throws ParseException {
-            CommonExpression<T> exp = parseMultiplicativeGroup();
+        private void parseElement() throws ParseException {
             while (true) {
-                if (test('+')) {
-                    exp = new Add<>(calc, exp, parseMultiplicativeGroup());
-                } else if (test('-')) {
-                    exp = new Subtract<>(calc, exp, parseMultiplicativeGroup());
+                if (test(Lexer.MINUS)) {
+                    if (isAdjacentNumber()) {
+                        operands.add(parseConst(token - 1));
+                        return;
+                    }
+                    push(NEGATE);
+                } else if (testName(ABS)) {
+                    push(ABS_VALUE);
+                } else if (testName(SQUARE)) {
+                    push(SQUARE_VALUE);
+                } else if (test(Lexer.OPEN)) {
+                    push(GROUP);
+                } else if (lexer.kind(token) == Lexer.NUMBER) {
+                    operands.add(parseConst(token));
+                    return;
+                } else if (lexer.name(token) >= VARIABLES) {
+                    int slot = lexer.name(token++) - VARIABLES;
+                    operands.add(nodes.intern(new Variable<>(calc, variables.get(slot), slot)));
+                    return;
                 } else {
-                    return exp;
+                    throw new IllegalSymbolException(
+                            makeExceptionMessage("constant, variable, unary operation or bracket expression")
+                    );
                 }
             }
         }
 
-        private CommonExpression<T> parseMultiplicativeGroup() throws ParseException {
-            CommonExpression<T> exp = parseElement();
-            while (true) {
-                if (test('*')) {
-                    exp = new Multiply<>(calc, exp, parseElement());
-                } else if (test('/')) {
-                    exp = new Divide<>(calc, exp, parseElement());
-                } else if (testId("mod")) {
-                    exp = new Mod<>(calc, exp, parseElement());
-                } else {
-                    return exp;
+        private int binaryOperation() {
+            if (test(Lexer.PLUS)) {
+                return ADD;
+            } else if (test(Lexer.MINUS)) {
+                return SUBTRACT;
+            } else if (test(Lexer.STAR)) {
+                return MULTIPLY;
+            } else if (test(Lexer.SLASH)) {
+                return DIVIDE;
+            } else if (testName(MOD)) {
+                return MODULO;
+            }
+            return GROUP;
+        }
+
+        private void reduceUnary() {
+            while (ops > 0 && stack[ops - 1] >= NEGATE) {
+                int last = operands.size() - 1;
+                CommonExpression<T> arg = operands.get(last);
+                switch (stack[--ops]) {
+                    case NEGATE:
+                        operands.set(last, nodes.intern(new Negate<>(calc, arg)));
+                        break;
+                    case ABS_VALUE:
+                        operands.set(last, nodes.intern(new Abs<>(calc, arg)));
+                        break;
+                    default:
+                        operands.set(last, nodes.intern(new Square<>(calc, arg)));
                 }
             }
         }
 
-        private CommonExpression<T> parseElement() throws ParseException {
-            skipWhitespace();
-            CommonExpression<T> res;
-            if (test('-')) {
-                res = calc.isValidSymbol(getChar()) ? parseConst( "-") : new Negate<>(calc, parseElement());
-            } else if (testId("abs")) {
-                res = new Abs<>(calc, parseElement());
-            } else if (testId("square")) {
-                res = new Square<>(calc, parseElement());
-            } else if (test('(')) {
-                res = parseAdditiveGroup();
-                if (!test(')')) {
-                    throw new BracketsBalanceException(makeExceptionMessage(")"));
+        private void reduceBinary(int precedence) {
+            while (ops > 0 && stack[ops - 1] != GROUP && precedence(stack[ops - 1]) >= precedence) {
+                CommonExpression<T> second = operands.remove(operands.size() - 1);
+                int last = operands.size() - 1;
+                CommonExpression<T> first = operands.get(last);
+                switch (stack[--ops]) {
+                    case ADD:
+                        operands.set(last, nodes.intern(new Add<>(calc, first, second)));
+                        break;
+                    case SUBTRACT:
+                        operands.set(last, nodes.intern(new Subtract<>(calc, first, second)));
+                        break;
+                    case MULTIPLY:
+                        operands.set(last, nodes.intern(new Multiply<>(calc, first, second)));
+                        break;
+                    case DIVIDE:
+                        operands.set(last, nodes.intern(new Divide<>(calc, first, second)));
+                        break;
+                    default:
+                        operands.set(last, nodes.intern(new Mod<>(calc, first, second)));
                 }
-            } else if (calc.isValidSymbol(getChar())) {
-                res = parseConst("");
-            } else {
-                res = parseVariable();
-            }
-            if (res == null) {
-                throw new IllegalSymbolException(
-                        makeExceptionMessage("constant, variable, unary operation or bracket expression")
-                );
             }
-            skipWhitespace();
-            return res;
         }
 
-        private CommonExpression<T> parseConst(String sign) throws ConstantFormatException {
-            StringBuilder sb = new StringBuilder(sign);
-            while (calc.isValidSymbol(getChar())) {
-                sb.append(nextChar());
+        private static int precedence(int op) {
+            return op < MULTIPLY ? ADDITIVE : MULTIPLICATIVE;
+        }
+
+        private void push(int op) {
+            if (ops == stack.length) {
+                stack = Arrays.copyOf(stack, 2 * ops);
             }
+            stack[ops++] = op;
+        }
+
+        private boolean isAdjacentNumber() {
+            return lexer.kind(token) == Lexer.NUMBER && lexer.start(token) == lexer.end(token - 1);
+        }
+
+        private CommonExpression<T> parseConst(int start) throws ConstantFormatException {
+            boolean negative = start != token;
+            int number = token++;
             try {
-                return new Const<>(calc.valueOf(sb.toString()));
+                if (lexer.hasValue(number) && !(negative && lexer.value(number) == 0)) {
+                    return nodes.intern(new Const<>(calc.valueOf(negative ? -lexer.value(number) : lexer.value(number))));
+                }
+                return nodes.intern(new Const<>(calc.valueOf((negative ? "-" : "") + lexer.text(number))));
             } catch (IllegalArgumentException e) {
                 throw new ConstantFormatException(String.format(
-                        "Invalid constant on positions %d - %d: %s", getPos() - sb.length() + 1, getPos(), sb
+                        "Invalid constant on positions %d - %d: %s", lexer.start(start) + 1, lexer.end(number),
+                        (negative ? "-" : "") + lexer.text(number)
                 ));
             }
         }
 
-        private CommonExpression<T> parseVariable() {
-            for (int len = VariablesList.maxVarLength; len > 0; len--) {
-                String sub = substring(len);
-                if (VariablesList.NAMES.contains(sub) && testId(sub)) {
-                    return new Variable<>(calc, sub);
+        private static boolean isIdentifier(String name) {
+            if (name.isEmpty() || !Character.isLetter(name.charAt(0)) || KEYWORDS.contains(name)) {
+                return false;
+            }
+            for (int i = 1; i < name.length(); i++) {
+                if (!Character.isLetterOrDigit(name.charAt(i))) {
+                    return false;
                 }
             }
-            return null;
+            return true;
         }
 
-        private boolean testId(final String expected) {
-            return test(expected, !Character.isLetterOrDigit(charAt(expected.length())));
+        private boolean test(int kind) {
+            if (lexer.kind(token) == kind) {
+                token++;
+                return true;
+            }
+            return false;
         }
 
-        private String makeExceptionMessage(String expected) {
-            return String.format("Expected: %s on position %d\nFound: %c", expected, getPos() + 1, getChar());
+        private boolean testName(int name) {
+            if (lexer.name(token) == name) {
+                token++;
+                return true;
+            }
+            return false;
         }
 
-        private void skipWhitespace() {
-            while (test(' ') || test('\r') || test('\n') || test('\t'));
+        private String makeExceptionMessage(String expected) {
+            return String.format(
+                    "Expected: %s on position %d\nFound: %c", expected, lexer.start(token) + 1, lexer.first(token)
+            );
         }
     }
 }
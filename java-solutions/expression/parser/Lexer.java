@@ -0,0 +1,221 @@
+package expression.parser;
+
+import expression.calculator.Calculator;
+
+import java.util.Arrays;
+
+public class Lexer {
+    public static final int EOF = 0;
+    public static final int NUMBER = 1;
+    public static final int IDENTIFIER = 2;
+    public static final int PLUS = 3;
+    public static final int MINUS = 4;
+    public static final int STAR = 5;
+    public static final int SLASH = 6;
+    public static final int OPEN = 7;
+    public static final int CLOSE = 8;
+    public static final int UNKNOWN = 9;
+
+    private static final byte SPACE = 10;
+    private static final byte LETTER = 11;
+    private static final byte SYMBOL = 12;
+    private static final byte[] CLASSES = new byte[128];
+    private static final char END = '\0';
+
+    static {
+        Arrays.fill(CLASSES, (byte) UNKNOWN);
+        for (char c = 'a'; c <= 'z'; c++) {
+            CLASSES[c] = LETTER;
+            CLASSES[Character.toUpperCase(c)] = LETTER;
+        }
+        CLASSES[' '] = CLASSES['\r'] = CLASSES['\n'] = CLASSES['\t'] = SPACE;
+        CLASSES['+'] = PLUS;
+        CLASSES['-'] = MINUS;
+        CLASSES['*'] = STAR;
+        CLASSES['/'] = SLASH;
+        CLASSES['('] = OPEN;
+        CLASSES[')'] = CLOSE;
+        CLASSES[END] = EOF;
+    }
+
+    private final byte[] classes = CLASSES.clone();
+    private CharSource source;
+    private Calculator<?> calc;
+    private String[] names;
+    private char ch;
+    private int pos;
+
+    private int size;
+    private byte[] kinds = new byte[16];
+    private char[] firsts = new char[16];
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int[] extras = new int[16];
+    private long[] values = new long[16];
+    private char[] text = new char[16];
+    private int textLength;
+    private char[] word = new char[16];
+
+    public void tokenize(CharSource source, Calculator<?> calc, String[] names) {
+        if (this.calc != calc) {
+            for (char c = 0; c < classes.length; c++) {
+                classes[c] = calc.isValidSymbol(c) ? SYMBOL : CLASSES[c];
+            }
+        }
+        this.source = source;
+        this.calc = calc;
+        this.names = names;
+        size = 0;
+        textLength = 0;
+        pos = 0;
+        ch = source.hasNext() ? source.next() : END;
+        tokenize();
+        this.source = null;
+    }
+
+    private void tokenize() {
+        while (true) {
+            while (classOf(ch) == SPACE) {
+                next();
+            }
+            if (classOf(ch) == EOF) {
+                add(EOF, pos, END);
+                return;
+            }
+            int start = pos;
+            char first = ch;
+            int kind = classOf(ch);
+            if (kind == SYMBOL) {
+                number(start, first);
+            } else if (kind == LETTER) {
+                identifier(start, first);
+            } else {
+                next();
+                add(kind, start, first);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int kind(int token) {
+        return kinds[token];
+    }
+
+    public int start(int token) {
+        return starts[token];
+    }
+
+    public int end(int token) {
+        return ends[token];
+    }
+
+    public char first(int token) {
+        return firsts[token];
+    }
+
+    public int name(int token) {
+        return kinds[token] == IDENTIFIER ? extras[token] : -1;
+    }
+
+    public boolean hasValue(int token) {
+        return kinds[token] == NUMBER && values[token] >= 0;
+    }
+
+    public long value(int token) {
+        return values[token];
+    }
+
+    public String text(int token) {
+        return new String(text, extras[token], ends[token] - starts[token]);
+    }
+
+    private void number(int start, char first) {
+        int offset = textLength;
+        long value = 0;
+        while (classOf(ch) == SYMBOL) {
+            int digit = ch - '0';
+            if (value >= 0 && 0 <= digit && digit <= 9 && value <= (Long.MAX_VALUE - digit) / 10) {
+                value = value * 10 + digit;
+            } else {
+                value = -1;
+            }
+            if (textLength == text.length) {
+                text = Arrays.copyOf(text, 2 * textLength);
+            }
+            text[textLength++] = ch;
+            next();
+        }
+        add(NUMBER, start, first);
+        extras[size - 1] = offset;
+        values[size - 1] = value;
+    }
+
+    private void identifier(int start, char first) {
+        int length = 0;
+        while (isLetterOrDigit(ch)) {
+            if (length == word.length) {
+                word = Arrays.copyOf(word, 2 * length);
+            }
+            word[length++] = ch;
+            next();
+        }
+        add(IDENTIFIER, start, first);
+        extras[size - 1] = lookup(length);
+    }
+
+    private int lookup(int length) {
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            if (name.length() == length && matches(name, length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean matches(String name, int length) {
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != word[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void add(int kind, int start, char first) {
+        if (size == kinds.length) {
+            kinds = Arrays.copyOf(kinds, 2 * size);
+            firsts = Arrays.copyOf(firsts, 2 * size);
+            starts = Arrays.copyOf(starts, 2 * size);
+            ends = Arrays.copyOf(ends, 2 * size);
+            extras = Arrays.copyOf(extras, 2 * size);
+            values = Arrays.copyOf(values, 2 * size);
+        }
+        kinds[size] = (byte) kind;
+        firsts[size] = first;
+        starts[size] = start;
+        ends[size] = pos;
+        size++;
+    }
+
+    private void next() {
+        pos++;
+        ch = source.hasNext() ? source.next() : END;
+    }
+
+    private int classOf(char c) {
+        if (c < classes.length) {
+            return classes[c];
+        } else if (calc.isValidSymbol(c)) {
+            return SYMBOL;
+        }
+        return Character.isLetter(c) ? LETTER : UNKNOWN;
+    }
+
+    private static boolean isLetterOrDigit(char c) {
+        return c < 128 ? CLASSES[c] == LETTER || '0' <= c && c <= '9' : Character.isLetterOrDigit(c);
+    }
+}
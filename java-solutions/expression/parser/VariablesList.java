@@ -1,17 +1,24 @@
 package expression.parser;
 
+import java.util.List;
 import java.util.Set;
 
 public class VariablesList {
     public static final int maxVarLength;
 
-    public static final Set<String> NAMES = Set.of("x", "y", "z");
+    public static final List<String> DEFAULT = List.of("x", "y", "z");
+
+    public static final Set<String> NAMES = Set.copyOf(DEFAULT);
 
     static {
+        maxVarLength = maxLength(DEFAULT);
+    }
+
+    public static int maxLength(List<String> names) {
         int max = 0;
-        for (String str : NAMES) {
+        for (String str : names) {
             max = Math.max(max, str.length());
         }
-        maxVarLength = max;
+        return max;
     }
 }
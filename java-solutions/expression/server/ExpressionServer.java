@@ -0,0 +1,240 @@
+package expression.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import expression.exceptions.ParseException;
+import expression.generic.ExpressionCache;
+import expression.generic.GenericTabulator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ExpressionServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_MAX_PENDING = 1024;
+    public static final long DEFAULT_MAX_CELLS = 1 << 20;
+    private static final int REJECT_THREADS = 2;
+    private static final int REJECT_QUEUE = 64;
+    private static final ThreadLocal<Boolean> OVERLOADED = ThreadLocal.withInitial(() -> false);
+
+    private final GenericTabulator tabulator;
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final ExecutorService rejector;
+    private final Semaphore admitted;
+    private final long maxCells;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public ExpressionServer(int port, int threads, int maxPending, long maxCells) throws IOException {
+        this(port, threads, maxPending, maxCells, new GenericTabulator());
+    }
+
+    public ExpressionServer(
+            int port, int threads, int maxPending, long maxCells, GenericTabulator tabulator
+    ) throws IOException {
+        if (threads < 1 || maxPending < 0 || maxCells < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid arguments: threads and cell limit must be positive, pending limit non-negative\n"
+                            + "Found: %d, %d, %d", threads, maxPending, maxCells
+            ));
+        }
+        this.tabulator = tabulator;
+        this.maxCells = maxCells;
+        this.admitted = new Semaphore(threads + maxPending);
+        this.workers = Executors.newFixedThreadPool(threads);
+        this.rejector = new ThreadPoolExecutor(
+                REJECT_THREADS, REJECT_THREADS, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(REJECT_QUEUE),
+                (task, executor) -> rejected.incrementAndGet()
+        );
+        this.server = HttpServer.create(new InetSocketAddress(port), maxPending);
+        server.createContext("/evaluate", exchange -> handle(exchange, this::evaluate));
+        server.createContext("/tabulate", exchange -> handle(exchange, this::tabulate));
+        server.createContext("/stats", exchange -> handle(exchange, this::stats));
+        server.setExecutor(this::dispatch);
+        server.start();
+    }
+
+    public static void main(String[] args) {
+        try {
+            if (args.length > 4) {
+                throw new IllegalArgumentException("Invalid arguments: expected at most 4 arguments\nFound: " + args.length);
+            }
+            int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+            int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+            int maxPending = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_PENDING;
+            long maxCells = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_MAX_CELLS;
+            ExpressionServer server = new ExpressionServer(port, threads, maxPending, maxCells);
+            System.out.format("Listening on port %d with %d threads\n", server.getPort(), threads);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        workers.shutdown();
+        rejector.shutdown();
+        try {
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+            rejector.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        tabulator.close();
+    }
+
+    private void dispatch(Runnable task) {
+        if (admitted.tryAcquire()) {
+            workers.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    admitted.release();
+                }
+            });
+        } else {
+            rejector.execute(() -> {
+                OVERLOADED.set(true);
+                try {
+                    task.run();
+                } finally {
+                    OVERLOADED.set(false);
+                }
+            });
+        }
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        try (exchange) {
+            if (OVERLOADED.get()) {
+                rejected.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 503, "Server is overloaded\n");
+                return;
+            }
+            requests.incrementAndGet();
+            StringBuilder response = new StringBuilder();
+            try {
+                handler.handle(parameters(exchange.getRequestURI().getRawQuery()), response);
+                respond(exchange, 200, response.toString());
+            } catch (ParseException | IllegalArgumentException e) {
+                failed.incrementAndGet();
+                respond(exchange, 400, e.getMessage() + "\n");
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                StringWriter trace = new StringWriter();
+                e.printStackTrace(new PrintWriter(trace));
+                respond(exchange, 500, trace.toString());
+            }
+        }
+    }
+
+    private void evaluate(Map<String, String> parameters, StringBuilder response) throws Exception {
+        int x = integer(parameters, "x"), y = integer(parameters, "y"), z = integer(parameters, "z");
+        Object[] value = new Object[1];
+        tabulator.tabulate(mode(parameters), expression(parameters), x, x, y, y, z, z, (a, b, c, v) -> value[0] = v);
+        response.append(value[0]).append('\n');
+    }
+
+    private void tabulate(Map<String, String> parameters, StringBuilder response) throws Exception {
+        int x1 = integer(parameters, "x1"), x2 = integer(parameters, "x2");
+        int y1 = integer(parameters, "y1"), y2 = integer(parameters, "y2");
+        int z1 = integer(parameters, "z1"), z2 = integer(parameters, "z2");
+        long cells = Math.max(0, (long) x2 - x1 + 1) * Math.max(0, (long) y2 - y1 + 1) * Math.max(0, (long) z2 - z1 + 1);
+        if (cells > maxCells) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid arguments: too many points to tabulate\nFound: %d, limit: %d", cells, maxCells
+            ));
+        }
+        tabulator.tabulate(
+                mode(parameters), expression(parameters), x1, x2, y1, y2, z1, z2,
+                (x, y, z, value) -> response.append(x).append(' ').append(y).append(' ').append(z)
+                        .append(' ').append(value).append('\n')
+        );
+    }
+
+    private void stats(Map<String, String> parameters, StringBuilder response) {
+        ExpressionCache<?> cache = tabulator.getCache();
+        response.append("requests ").append(requests.get()).append('\n')
+                .append("rejected ").append(rejected.get()).append('\n')
+                .append("failed ").append(failed.get()).append('\n')
+                .append("cache.size ").append(cache.size()).append('\n')
+                .append("cache.hits ").append(cache.getHits()).append('\n')
+                .append("cache.misses ").append(cache.getMisses()).append('\n')
+                .append("cache.coalesced ").append(cache.getCoalesced()).append('\n')
+                .append("cache.evictions ").append(cache.getEvictions()).append('\n');
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parameters(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                String name = eq < 0 ? pair : pair.substring(0, eq);
+                String value = eq < 0 ? "" : pair.substring(eq + 1);
+                parameters.put(
+                        URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8)
+                );
+            }
+        }
+        return parameters;
+    }
+
+    private static String mode(Map<String, String> parameters) {
+        return parameter(parameters, "mode");
+    }
+
+    private static String expression(Map<String, String> parameters) {
+        return parameter(parameters, "expression");
+    }
+
+    private static int integer(Map<String, String> parameters, String name) {
+        try {
+            return Integer.parseInt(parameter(parameters, name));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid arguments: " + name + " must be an integer");
+        }
+    }
+
+    private static String parameter(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Invalid arguments: missing parameter " + name);
+        }
+        return value;
+    }
+
+    private interface Handler {
+        void handle(Map<String, String> parameters, StringBuilder response) throws Exception;
+    }
+}
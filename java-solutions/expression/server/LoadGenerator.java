@@ -0,0 +1,145 @@
+package expression.server;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LoadGenerator {
+    private static final List<String> EXPRESSIONS = List.of(
+            "x * y - z",
+            "square(x - y) + abs(z) mod 7",
+            "(x + y) * (x + y) / (z - 1)",
+            "x * x * x - 3 * y * z + 2147483647"
+    );
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final String base;
+    private final String mode;
+    private final List<String> expressions;
+    private final int edge;
+
+    public LoadGenerator(String base, String mode, List<String> expressions, int edge) {
+        this.base = base;
+        this.mode = mode;
+        this.expressions = expressions;
+        this.edge = edge;
+    }
+
+    public static void main(String[] args) {
+        try {
+            if (args.length < 3) {
+                throw new IllegalArgumentException(
+                        "Usage: LoadGenerator <url> <concurrency> <requests> [mode] [edge] [expression...]"
+                );
+            }
+            String mode = args.length > 3 ? args[3] : "i";
+            int edge = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+            List<String> expressions = args.length > 5 ? Arrays.asList(args).subList(5, args.length) : EXPRESSIONS;
+            Result result = new LoadGenerator(args[0], mode, expressions, edge)
+                    .run(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+            System.out.println(result);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    public Result run(int concurrency, int requests) throws Exception {
+        long[] latencies = new long[requests];
+        int[] statuses = new int[requests];
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        long elapsed;
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < concurrency; t++) {
+                futures.add(clients.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                        HttpRequest request = HttpRequest.newBuilder(uri(i)).GET().build();
+                        long begin = System.nanoTime();
+                        try {
+                            statuses[i] = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (IOException e) {
+                            statuses[i] = -1;
+                        }
+                        latencies[i] = System.nanoTime() - begin;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            elapsed = System.nanoTime() - start;
+        } finally {
+            clients.shutdown();
+        }
+        return new Result(latencies, statuses, elapsed);
+    }
+
+    private URI uri(int index) {
+        String expression = expressions.get(index % expressions.size());
+        int offset = index / expressions.size() % 4 * edge;
+        return URI.create(String.format(
+                "%s/tabulate?mode=%s&expression=%s&x1=%d&x2=%d&y1=0&y2=%d&z1=0&z2=%d",
+                base, URLEncoder.encode(mode, StandardCharsets.UTF_8),
+                URLEncoder.encode(expression, StandardCharsets.UTF_8),
+                offset, offset + edge - 1, edge - 1, edge - 1
+        ));
+    }
+
+    public static class Result {
+        private final long[] latencies;
+        private final int ok;
+        private final int rejected;
+        private final int failed;
+        private final long elapsed;
+
+        private Result(long[] latencies, int[] statuses, long elapsed) {
+            this.latencies = latencies.clone();
+            Arrays.sort(this.latencies);
+            this.ok = (int) Arrays.stream(statuses).filter(status -> status == 200).count();
+            this.rejected = (int) Arrays.stream(statuses).filter(status -> status == 503).count();
+            this.failed = statuses.length - ok - rejected;
+            this.elapsed = elapsed;
+        }
+
+        public double getThroughput() {
+            return latencies.length * 1e9 / elapsed;
+        }
+
+        public long getPercentile(double percentile) {
+            int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+            return latencies.length == 0 ? 0 : latencies[Math.max(0, index)];
+        }
+
+        public int getRejected() {
+            return rejected;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "Requests: %d (%d ok, %d rejected, %d failed)\nThroughput: %.1f req/s\n"
+                            + "Latency: p50 %.2f ms, p99 %.2f ms, max %.2f ms",
+                    latencies.length, ok, rejected, failed, getThroughput(),
+                    getPercentile(50) / 1e6, getPercentile(99) / 1e6, getPercentile(100) / 1e6
+            );
+        }
+    }
+}
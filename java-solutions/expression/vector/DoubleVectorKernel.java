@@ -0,0 +1,111 @@
+package expression.vector;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+class DoubleVectorKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    private final Program program;
+    private final int block;
+    private final ThreadLocal<double[]> buffers;
+
+    DoubleVectorKernel(Program program) {
+        this.program = program;
+        this.block = program.blockSize(LANES);
+        this.buffers = ThreadLocal.withInitial(() -> new double[program.size() * block]);
+    }
+
+    void fill(Object[] line, int count, int x, int y, int z) {
+        double[] buf = buffers.get();
+        int result = (program.size() - 1) * block;
+        for (int start = 0; start < count; start += block) {
+            int length = Math.min(block, count - start);
+            int upper = (length + LANES - 1) / LANES * LANES;
+            run(buf, x, y, z + start, upper);
+            for (int l = 0; l < length; l++) {
+                line[start + l] = buf[result + l];
+            }
+        }
+    }
+
+    private void run(double[] buf, int x, int y, int z, int upper) {
+        for (int n = 0; n < program.size(); n++) {
+            int d = n * block;
+            int a = program.first[n] * block;
+            int b = program.second[n] * block;
+            switch (program.code[n]) {
+                case Program.CONST:
+                    Arrays.fill(buf, d, d + upper, ((Number) program.constants[n]).doubleValue());
+                    break;
+                case Program.X:
+                    Arrays.fill(buf, d, d + upper, x);
+                    break;
+                case Program.Y:
+                    Arrays.fill(buf, d, d + upper, y);
+                    break;
+                case Program.Z:
+                    for (int l = 0; l < upper; l++) {
+                        buf[d + l] = z + l;
+                    }
+                    break;
+                case Program.ADD:
+                    for (int l = 0; l < upper; l += LANES) {
+                        DoubleVector.fromArray(SPECIES, buf, a + l)
+                                .add(DoubleVector.fromArray(SPECIES, buf, b + l))
+                                .intoArray(buf, d + l);
+                    }
+                    break;
+                case Program.SUBTRACT:
+                    for (int l = 0; l < upper; l += LANES) {
+                        DoubleVector.fromArray(SPECIES, buf, a + l)
+                                .sub(DoubleVector.fromArray(SPECIES, buf, b + l))
+                                .intoArray(buf, d + l);
+                    }
+                    break;
+                case Program.MULTIPLY:
+                    for (int l = 0; l < upper; l += LANES) {
+                        DoubleVector.fromArray(SPECIES, buf, a + l)
+                                .mul(DoubleVector.fromArray(SPECIES, buf, b + l))
+                                .intoArray(buf, d + l);
+                    }
+                    break;
+                case Program.DIVIDE:
+                    for (int l = 0; l < upper; l += LANES) {
+                        DoubleVector.fromArray(SPECIES, buf, a + l)
+                                .div(DoubleVector.fromArray(SPECIES, buf, b + l))
+                                .intoArray(buf, d + l);
+                    }
+                    break;
+                case Program.MOD:
+                    for (int l = 0; l < upper; l++) {
+                        buf[d + l] = buf[a + l] % buf[b + l];
+                    }
+                    break;
+                case Program.NEGATE:
+                    for (int l = 0; l < upper; l += LANES) {
+                        DoubleVector.fromArray(SPECIES, buf, a + l).neg().intoArray(buf, d + l);
+                    }
+                    break;
+                case Program.ABS:
+                    for (int l = 0; l < upper; l += LANES) {
+                        DoubleVector va = DoubleVector.fromArray(SPECIES, buf, a + l);
+                        va.neg().blend(va, va.compare(VectorOperators.GE, 0)).intoArray(buf, d + l);
+                    }
+                    break;
+                case Program.SQUARE:
+                    for (int l = 0; l < upper; l += LANES) {
+                        DoubleVector va = DoubleVector.fromArray(SPECIES, buf, a + l);
+                        va.mul(va).intoArray(buf, d + l);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown opcode: " + program.code[n]);
+            }
+        }
+    }
+}
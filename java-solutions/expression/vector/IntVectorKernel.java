@@ -0,0 +1,172 @@
+package expression.vector;
+
+import expression.calculator.Calculator;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+class IntVectorKernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    private static final VectorSpecies<Long> LONG_SPECIES = VectorSpecies.of(long.class, SPECIES.vectorShape());
+    private static final int LONG_LANES = LONG_SPECIES.length();
+    private static final IntVector IOTA = IntVector.zero(SPECIES).addIndex(1);
+
+    private final Program program;
+    private final boolean checked;
+    private final int block;
+    private final ThreadLocal<int[]> buffers;
+    private final ThreadLocal<boolean[]> errors;
+
+    IntVectorKernel(Program program, boolean checked) {
+        this.program = program;
+        this.checked = checked;
+        this.block = program.blockSize(LANES);
+        this.buffers = ThreadLocal.withInitial(() -> new int[program.size() * block]);
+        this.errors = ThreadLocal.withInitial(() -> new boolean[block]);
+    }
+
+    void fill(Calculator<?> calc, Object[] line, int count, int x, int y, int z) {
+        int[] buf = buffers.get();
+        boolean[] errors = this.errors.get();
+        int result = (program.size() - 1) * block;
+        for (int start = 0; start < count; start += block) {
+            int length = Math.min(block, count - start);
+            int upper = (length + LANES - 1) / LANES * LANES;
+            Arrays.fill(errors, 0, upper, false);
+            run(buf, errors, x, y, z + start, upper);
+            for (int l = 0; l < length; l++) {
+                line[start + l] = errors[l] ? null : calc.valueOf(buf[result + l]);
+            }
+        }
+    }
+
+    private void run(int[] buf, boolean[] errors, int x, int y, int z, int upper) {
+        for (int n = 0; n < program.size(); n++) {
+            int d = n * block;
+            int a = program.first[n] * block;
+            int b = program.second[n] * block;
+            switch (program.code[n]) {
+                case Program.CONST:
+                    Arrays.fill(buf, d, d + upper, ((Number) program.constants[n]).intValue());
+                    break;
+                case Program.X:
+                    Arrays.fill(buf, d, d + upper, x);
+                    break;
+                case Program.Y:
+                    Arrays.fill(buf, d, d + upper, y);
+                    break;
+                case Program.Z:
+                    for (int l = 0; l < upper; l += LANES) {
+                        IOTA.add(z + l).intoArray(buf, d + l);
+                    }
+                    break;
+                case Program.ADD:
+                    for (int l = 0; l < upper; l += LANES) {
+                        IntVector va = IntVector.fromArray(SPECIES, buf, a + l);
+                        IntVector vb = IntVector.fromArray(SPECIES, buf, b + l);
+                        IntVector r = va.add(vb);
+                        if (checked) {
+                            error(errors, l, va.lanewise(VectorOperators.XOR, r)
+                                    .lanewise(VectorOperators.AND, vb.lanewise(VectorOperators.XOR, r))
+                                    .compare(VectorOperators.LT, 0));
+                        }
+                        r.intoArray(buf, d + l);
+                    }
+                    break;
+                case Program.SUBTRACT:
+                    for (int l = 0; l < upper; l += LANES) {
+                        IntVector va = IntVector.fromArray(SPECIES, buf, a + l);
+                        IntVector vb = IntVector.fromArray(SPECIES, buf, b + l);
+                        IntVector r = va.sub(vb);
+                        if (checked) {
+                            error(errors, l, va.lanewise(VectorOperators.XOR, vb)
+                                    .lanewise(VectorOperators.AND, va.lanewise(VectorOperators.XOR, r))
+                                    .compare(VectorOperators.LT, 0));
+                        }
+                        r.intoArray(buf, d + l);
+                    }
+                    break;
+                case Program.MULTIPLY:
+                    for (int l = 0; l < upper; l += LANES) {
+                        IntVector va = IntVector.fromArray(SPECIES, buf, a + l);
+                        IntVector vb = IntVector.fromArray(SPECIES, buf, b + l);
+                        multiply(errors, l, va, vb).intoArray(buf, d + l);
+                    }
+                    break;
+                case Program.DIVIDE:
+                    for (int l = 0; l < upper; l += LANES) {
+                        IntVector va = IntVector.fromArray(SPECIES, buf, a + l);
+                        IntVector vb = IntVector.fromArray(SPECIES, buf, b + l);
+                        VectorMask<Integer> zero = vb.eq(0);
+                        error(errors, l, checked
+                                ? zero.or(va.eq(Integer.MIN_VALUE).and(vb.eq(-1)))
+                                : zero);
+                        va.div(vb.blend(1, zero)).intoArray(buf, d + l);
+                    }
+                    break;
+                case Program.MOD:
+                    for (int l = 0; l < upper; l += LANES) {
+                        IntVector va = IntVector.fromArray(SPECIES, buf, a + l);
+                        IntVector vb = IntVector.fromArray(SPECIES, buf, b + l);
+                        VectorMask<Integer> zero = vb.eq(0);
+                        error(errors, l, zero);
+                        IntVector divisor = vb.blend(1, zero);
+                        va.sub(va.div(divisor).mul(divisor)).intoArray(buf, d + l);
+                    }
+                    break;
+                case Program.NEGATE:
+                    for (int l = 0; l < upper; l += LANES) {
+                        IntVector va = IntVector.fromArray(SPECIES, buf, a + l);
+                        if (checked) {
+                            error(errors, l, va.eq(Integer.MIN_VALUE));
+                        }
+                        va.neg().intoArray(buf, d + l);
+                    }
+                    break;
+                case Program.ABS:
+                    for (int l = 0; l < upper; l += LANES) {
+                        IntVector va = IntVector.fromArray(SPECIES, buf, a + l);
+                        if (checked) {
+                            error(errors, l, va.eq(Integer.MIN_VALUE));
+                        }
+                        va.abs().intoArray(buf, d + l);
+                    }
+                    break;
+                case Program.SQUARE:
+                    for (int l = 0; l < upper; l += LANES) {
+                        IntVector va = IntVector.fromArray(SPECIES, buf, a + l);
+                        multiply(errors, l, va, va).intoArray(buf, d + l);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown opcode: " + program.code[n]);
+            }
+        }
+    }
+
+    private IntVector multiply(boolean[] errors, int offset, IntVector va, IntVector vb) {
+        IntVector r = va.mul(vb);
+        if (checked) {
+            for (int part = 0; part < LANES / LONG_LANES; part++) {
+                LongVector product = ((LongVector) va.convertShape(VectorOperators.I2L, LONG_SPECIES, part))
+                        .mul((LongVector) vb.convertShape(VectorOperators.I2L, LONG_SPECIES, part));
+                error(errors, offset + part * LONG_LANES, product.compare(
+                        VectorOperators.NE,
+                        product.lanewise(VectorOperators.LSHL, 32).lanewise(VectorOperators.ASHR, 32)
+                ));
+            }
+        }
+        return r;
+    }
+
+    private static <E> void error(boolean[] errors, int offset, VectorMask<E> mask) {
+        if (mask.anyTrue()) {
+            VectorMask.fromArray(mask.vectorSpecies(), errors, offset).or(mask).intoArray(errors, offset);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package expression.vector;
+
+import expression.*;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+class Program {
+    static final int CONST = 0;
+    static final int X = 1;
+    static final int Y = 2;
+    static final int Z = 3;
+    static final int ADD = 4;
+    static final int SUBTRACT = 5;
+    static final int MULTIPLY = 6;
+    static final int DIVIDE = 7;
+    static final int MOD = 8;
+    static final int NEGATE = 9;
+    static final int ABS = 10;
+    static final int SQUARE = 11;
+
+    private static final int MAX_BLOCK = 256;
+    private static final int MAX_BUFFER = 1 << 20;
+
+    final int[] code;
+    final int[] first;
+    final int[] second;
+    final Object[] constants;
+    private final Map<CommonExpression<?>, Integer> slots = new IdentityHashMap<>();
+    private int size = 0;
+
+    private Program(int capacity) {
+        code = new int[capacity];
+        first = new int[capacity];
+        second = new int[capacity];
+        constants = new Object[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int blockSize(int lanes) {
+        return Math.max(lanes, Math.min(MAX_BLOCK, MAX_BUFFER / size) / lanes * lanes);
+    }
+
+    static Program of(CommonExpression<?> expr) {
+        Program program = new Program(count(expr));
+        return program.add(expr) < 0 ? null : program;
+    }
+
+    private static int count(CommonExpression<?> expr) {
+        if (expr instanceof BinaryOperation) {
+            BinaryOperation<?> op = (BinaryOperation<?>) expr;
+            return 1 + count(op.getFirst()) + count(op.getSecond());
+        } else if (expr instanceof UnaryOperation) {
+            return 1 + count(((UnaryOperation<?>) expr).getArg());
+        }
+        return 1;
+    }
+
+    private int add(CommonExpression<?> expr) {
+        Integer slot = slots.get(expr);
+        if (slot == null) {
+            slot = emit(expr);
+            slots.put(expr, slot);
+        }
+        return slot;
+    }
+
+    private int emit(CommonExpression<?> expr) {
+        if (expr instanceof Const) {
+            Object value = ((Const<?>) expr).getValue();
+            return value == null ? -1 : emit(CONST, -1, -1, value);
+        } else if (expr instanceof Variable) {
+            int index = ((Variable<?>) expr).getSlot();
+            return index < 0 || index > 2 ? -1 : emit(X + index, -1, -1, null);
+        } else if (expr instanceof BinaryOperation) {
+            BinaryOperation<?> op = (BinaryOperation<?>) expr;
+            int a = add(op.getFirst());
+            int b = a < 0 ? -1 : add(op.getSecond());
+            int opcode = op instanceof Add ? ADD
+                    : op instanceof Subtract ? SUBTRACT
+                    : op instanceof Multiply ? MULTIPLY
+                    : op instanceof Divide ? DIVIDE
+                    : op instanceof Mod ? MOD
+                    : -1;
+            return b < 0 || opcode < 0 ? -1 : emit(opcode, a, b, null);
+        } else if (expr instanceof UnaryOperation) {
+            UnaryOperation<?> op = (UnaryOperation<?>) expr;
+            int a = add(op.getArg());
+            int opcode = op instanceof Negate ? NEGATE
+                    : op instanceof Abs ? ABS
+                    : op instanceof Square ? SQUARE
+                    : -1;
+            return a < 0 || opcode < 0 ? -1 : emit(opcode, a, -1, null);
+        }
+        return -1;
+    }
+
+    private int emit(int opcode, int a, int b, Object constant) {
+        code[size] = opcode;
+        first[size] = a;
+        second[size] = b;
+        constants[size] = constant;
+        return size++;
+    }
+}
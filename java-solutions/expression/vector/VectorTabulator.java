@@ -0,0 +1,30 @@
+package expression.vector;
+
+import expression.CommonExpression;
+import expression.calculator.*;
+import expression.generic.GenericTabulator;
+
+public class VectorTabulator extends GenericTabulator {
+    public VectorTabulator() {
+        this(false, 1, DEFAULT_TILE_SIZE);
+    }
+
+    public VectorTabulator(boolean compile, int parallelism, int tileSize) {
+        super(compile, parallelism, tileSize);
+    }
+
+    @Override
+    protected <T> Filler filler(Calculator<T> calc, CommonExpression<T> parsed) {
+        Program program = Program.of(parsed);
+        if (program != null) {
+            if (calc.getClass() == IntegerCalculator.class || calc.getClass() == UncheckedIntegerCalculator.class) {
+                IntVectorKernel kernel = new IntVectorKernel(program, calc.getClass() == IntegerCalculator.class);
+                return (line, count, x, y, z) -> kernel.fill(calc, line, count, x, y, z);
+            } else if (calc.getClass() == DoubleCalculator.class) {
+                DoubleVectorKernel kernel = new DoubleVectorKernel(program);
+                return kernel::fill;
+            }
+        }
+        return super.filler(calc, parsed);
+    }
+}